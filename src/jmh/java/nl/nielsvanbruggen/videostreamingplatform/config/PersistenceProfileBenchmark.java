@@ -0,0 +1,126 @@
+package nl.nielsvanbruggen.videostreamingplatform.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import nl.nielsvanbruggen.videostreamingplatform.VideoStreamingPlatformApplication;
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+import nl.nielsvanbruggen.videostreamingplatform.media.repository.MediaRepository;
+import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
+import nl.nielsvanbruggen.videostreamingplatform.video.repository.VideoRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Hibernate writing videos through VideoRepository.saveAll, with and without the prod profile
+// (application-prod.yml), against an embedded PostgreSQL with the schema of the migrations.
+// Without it Hibernate sends a statement per row, prod sends batches of 50 that the driver
+// rewrites into multi row statements. SQL logging is off in both, so only the batching differs.
+// Scores are rows/s.
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="PersistenceProfileBenchmark"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceProfileBenchmark {
+    private static final int ROWS = 1000;
+    @Param({"default", "prod"})
+    private String profile;
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private VideoRepository videoRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Media media;
+    private List<Long> videoIds;
+    private int updates;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Path root = Files.createTempDirectory("benchmark");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(VideoStreamingPlatformApplication.class)
+                .properties("spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "spring.datasource.username=postgres",
+                        "spring.datasource.password=postgres",
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        "spring.jpa.show-sql=false",
+                        "server.port=0",
+                        "env.secret-key=" + Base64.getEncoder().encodeToString(new byte[32]),
+                        "env.videos.root=" + root,
+                        "env.thumbnail.root=" + root,
+                        "env.snapshot.root=" + root,
+                        "env.shared-cache.type=in-memory");
+        if(profile.equals("prod")) builder.profiles("prod");
+        context = builder.run();
+
+        videoRepository = context.getBean(VideoRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        media = context.getBean(MediaRepository.class).save(Media.builder()
+                .name("Benchmark")
+                .type(Type.SERIES)
+                .year(2024)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetVideos() {
+        jdbcTemplate.execute("TRUNCATE video CASCADE");
+        videoIds = videoRepository.saveAll(createVideos()).stream()
+                .map(Video::getId)
+                .toList();
+    }
+
+    // A bulk ingest of a season, in one transaction as a scan of the videos root would.
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void ingestVideos() {
+        transactionTemplate.executeWithoutResult(status -> videoRepository.saveAll(createVideos()));
+    }
+
+    // Dirty videos flushed at commit, like snapshot jobs updating the duration and snapshot.
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void updateVideos() {
+        double duration = 2700 + ++updates;
+        transactionTemplate.executeWithoutResult(status -> videoRepository.findAllById(videoIds)
+                .forEach(video -> video.setDuration(duration)));
+    }
+
+    private List<Video> createVideos() {
+        List<Video> videos = new ArrayList<>(ROWS);
+        for(int i = 0; i < ROWS; i++) {
+            videos.add(Video.builder()
+                    .name("Episode " + i)
+                    .path("/Media/Season 1/Episode " + i + ".mp4")
+                    .index(i)
+                    .duration(2700)
+                    .season(1)
+                    .snapshot("Episode " + i + ".jpg")
+                    .media(media)
+                    .build());
+        }
+        return videos;
+    }
+}
@@ -0,0 +1,146 @@
+package nl.nielsvanbruggen.videostreamingplatform.stream;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Serving one range of a video the way StreamService does, against alternatives that avoid
+// skipping through a stream or copying into a new array. Every operation reads the next range
+// of a generated file, so after warmup the file is served from the page cache. Every range is
+// written to a loopback socket that a thread drains, like a response, so transferTo can use
+// sendfile and the copies of the other arms are measured up to the socket.
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="ByteRangeReadBenchmark -prof gc"
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteRangeReadBenchmark {
+    @Param({"16777216", "268435456"})
+    private long fileSize;
+    @Param({"65536", "1048576", "4194304"})
+    private int chunkSize;
+    private Path path;
+    private FileChannel mappedChannel;
+    private MappedByteBuffer mapped;
+    private ServerSocketChannel server;
+    private SocketChannel sink;
+    private Thread drain;
+    private long position;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        path = Files.createTempFile("range-read", ".mp4");
+        byte[] block = new byte[1024 * 1024];
+        new Random(42).nextBytes(block);
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            for(long written = 0; written < fileSize; written += block.length) {
+                channel.write(ByteBuffer.wrap(block, 0, (int) Math.min(block.length, fileSize - written)));
+            }
+        }
+
+        mappedChannel = FileChannel.open(path, StandardOpenOption.READ);
+        mapped = mappedChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        openSink();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException, InterruptedException {
+        sink.close();
+        drain.join();
+        server.close();
+        mappedChannel.close();
+        Files.deleteIfExists(path);
+    }
+
+    // The current implementation.
+    @Benchmark
+    public long inputStreamSkip() throws IOException {
+        long start = nextStart();
+        return write(ByteBuffer.wrap(ByteRangeReader.readBytes(path, start, start + chunkSize - 1)));
+    }
+
+    @Benchmark
+    public long positionalRead() throws IOException {
+        long start = nextStart();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            while(buffer.hasRemaining()) {
+                if(channel.read(buffer, start + buffer.position()) == -1) break;
+            }
+            return write(buffer.flip());
+        }
+    }
+
+    // Writes the range straight to the response channel without building an array.
+    @Benchmark
+    public long transferTo() throws IOException {
+        long start = nextStart();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long transferred = 0;
+            while(transferred < chunkSize) {
+                transferred += channel.transferTo(start + transferred, chunkSize - transferred, sink);
+            }
+            return transferred;
+        }
+    }
+
+    // Maps the file once, every range is a copy out of the mapping.
+    @Benchmark
+    public long mmapCopy() throws IOException {
+        byte[] bytes = new byte[chunkSize];
+        mapped.get((int) nextStart(), bytes);
+        return write(ByteBuffer.wrap(bytes));
+    }
+
+    // Maps the file once, every range is a view on the mapping written to the response channel.
+    @Benchmark
+    public long mmapSlice() throws IOException {
+        return write(mapped.slice((int) nextStart(), chunkSize));
+    }
+
+    private void openSink() throws IOException {
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        sink = SocketChannel.open(server.getLocalAddress());
+        SocketChannel client = server.accept();
+        drain = new Thread(() -> {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+            try(client) {
+                while(client.read(buffer.clear()) != -1) {
+                    // Discards what was read.
+                }
+            } catch (IOException ignored) {
+                // The benchmark closed the socket.
+            }
+        }, "range-read-drain");
+        drain.setDaemon(true);
+        drain.start();
+    }
+
+    private long write(ByteBuffer buffer) throws IOException {
+        long written = 0;
+        while(buffer.hasRemaining()) {
+            written += sink.write(buffer);
+        }
+        return written;
+    }
+
+    private long nextStart() {
+        position += chunkSize;
+        if(position + chunkSize > fileSize) position = 0;
+        return position;
+    }
+}
@@ -0,0 +1,138 @@
+package nl.nielsvanbruggen.videostreamingplatform.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.auth.service.JwtService;
+import nl.nielsvanbruggen.videostreamingplatform.media.service.GenreIndex;
+import nl.nielsvanbruggen.videostreamingplatform.recommendation.RecommendationEngine;
+import nl.nielsvanbruggen.videostreamingplatform.user.repository.UserRepository;
+import nl.nielsvanbruggen.videostreamingplatform.watched.service.ContinueWatchingIndex;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with mvn -Pload-test test, see LoadSettings for the sizes and durations of a run.
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CatalogLoadTest {
+    private static final int VIDEO_SIZE = 64 * 1024 * 1024;
+    private static final int USER_TOKENS = 200;
+    private static final int STREAM_TARGETS = 100;
+    private static final LoadSettings SETTINGS = LoadSettings.fromSystemProperties();
+    private static EmbeddedPostgres postgres;
+    private static Path root;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GenreIndex genreIndex;
+    @Autowired
+    private RecommendationEngine recommendationEngine;
+    @Autowired
+    private ContinueWatchingIndex continueWatchingIndex;
+
+    @DynamicPropertySource
+    public static void properties(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        root = Files.createTempDirectory("load");
+        // Sparse, reads of the file don't depend on the disk it's on.
+        try(RandomAccessFile file = new RandomAccessFile(root.resolve(CatalogSeeder.VIDEO_PATH.substring(1)).toFile(), "rw")) {
+            file.setLength(VIDEO_SIZE);
+        }
+        byte[] secretKey = new byte[32];
+        new SecureRandom().nextBytes(secretKey);
+
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        // The schema comes from the migrations, so the load runs against the indexes production has.
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("env.secret-key", () -> Base64.getEncoder().encodeToString(secretKey));
+        registry.add("env.videos.root", root::toString);
+        registry.add("env.thumbnail.root", root::toString);
+        registry.add("env.snapshot.root", root::toString);
+        registry.add("env.shared-cache.type", () -> "in-memory");
+    }
+
+    @AfterAll
+    public static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    public void testCatalogUnderLoad() throws Exception {
+        new CatalogSeeder(jdbcTemplate, SETTINGS).seed();
+        genreIndex.rebuild();
+        recommendationEngine.rebuild();
+        continueWatchingIndex.load();
+
+        String baseUrl = "http://localhost:" + port;
+        List<String> userTokens = IntStream.rangeClosed(1, Math.min(USER_TOKENS, SETTINGS.users()))
+                .mapToObj(i -> jwtService.generateToken(userRepository.findByUsername("user" + i).orElseThrow()))
+                .toList();
+        List<LoadDriver.StreamTarget> streamTargets = getStreamTargets(baseUrl, userTokens.get(0));
+
+        List<EndpointStats> stats = new LoadDriver(baseUrl, SETTINGS, userTokens, streamTargets).run();
+        stats.forEach(endpoint -> log.info("{}: {} requests, {}/s, p50 {} ms, p99 {} ms, {} errors.",
+                endpoint.endpoint(), endpoint.requests(), round(endpoint.throughput()), round(endpoint.p50Millis()), round(endpoint.p99Millis()), endpoint.errors()));
+        LoadBaseline.writeReport(Path.of("target", "load-report.properties"), stats);
+
+        assertThat(stats)
+                .allSatisfy(endpoint -> assertThat(endpoint.errorRate())
+                        .as("error rate of %s", endpoint.endpoint())
+                        .isLessThanOrEqualTo(0.01));
+        assertThat(new LoadBaseline().findRegressions(stats, SETTINGS.tolerance()))
+                .isEmpty();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private List<LoadDriver.StreamTarget> getStreamTargets(String baseUrl, String userToken) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<LoadDriver.StreamTarget> targets = new ArrayList<>();
+        for(long videoId = 1; videoId <= Math.min(STREAM_TARGETS, SETTINGS.videoCount()); videoId++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/stream/video-token/" + videoId))
+                    .header("Authorization", "Bearer " + userToken)
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            String token = objectMapper.readTree(response.body()).get("token").asText();
+            targets.add(new LoadDriver.StreamTarget(videoId, token, VIDEO_SIZE));
+        }
+        return targets;
+    }
+}
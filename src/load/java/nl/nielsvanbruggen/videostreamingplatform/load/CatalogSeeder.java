@@ -0,0 +1,51 @@
+package nl.nielsvanbruggen.videostreamingplatform.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Generates the synthetic catalog server side, so millions of rows don't travel over JDBC.
+// Every video points at the same generated file, watched rows spread each user over
+// distinct videos.
+public class CatalogSeeder {
+    public static final String VIDEO_PATH = "/load.mp4";
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadSettings settings;
+
+    public CatalogSeeder(JdbcTemplate jdbcTemplate, LoadSettings settings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = settings;
+    }
+
+    public void seed() {
+        int media = settings.media();
+        int videos = settings.videoCount();
+
+        jdbcTemplate.update("INSERT INTO genre (name) " +
+                "SELECT 'genre-' || g FROM generate_series(1, ?) g", settings.genres());
+        jdbcTemplate.update("INSERT INTO media (id, name, created_at, updated_at, thumbnail, trailer, plot, year, type) " +
+                "SELECT m, 'Media ' || m, now() - m * interval '1 hour', now() - m * interval '1 minute', " +
+                "'load.jpg', '', 'Plot of media ' || m, 1950 + m % 75, (ARRAY['MOVIE', 'SERIES', 'ANIME'])[1 + m % 3] " +
+                "FROM generate_series(1, ?) m", media);
+        jdbcTemplate.update("INSERT INTO media_genre (media_id, genre_name) " +
+                "SELECT m, 'genre-' || (1 + (m * k) % ?) FROM generate_series(1, ?) m, generate_series(1, 2) k " +
+                "ON CONFLICT DO NOTHING", settings.genres(), media);
+        jdbcTemplate.update("INSERT INTO video (id, name, path, _index, duration, season, snapshot, media_id) " +
+                "SELECT (m - 1) * ? + v, 'Episode ' || v, ?, v, 2700, 1, 'load.jpg', m " +
+                "FROM generate_series(1, ?) m, generate_series(1, ?) v",
+                settings.videosPerMedia(), VIDEO_PATH, media, settings.videosPerMedia());
+        jdbcTemplate.update("INSERT INTO _user (id, username, email, password, role, created_at) " +
+                "SELECT u, 'user' || u, 'user' || u || '@load.test', '', 'USER', now() " +
+                "FROM generate_series(1, ?) u", settings.users());
+        jdbcTemplate.update("INSERT INTO watched (user_id, video_id, timestamp, updated_at, created_at) " +
+                "SELECT 1 + n % ?, 1 + ((n / ?) * 7919 + (n % ?) * 31) % ?, n % 2700, " +
+                "now() - n * interval '1 second', now() - n * interval '1 second' " +
+                "FROM generate_series(0, ? - 1) n " +
+                "ON CONFLICT DO NOTHING",
+                settings.users(), settings.users(), settings.users(), videos, settings.watched());
+
+        // Keeps ids generated by the application clear of the seeded ones.
+        jdbcTemplate.execute("SELECT setval('media_seq', " + (media + 100) + ")");
+        jdbcTemplate.execute("SELECT setval('video_seq', " + (videos + 100) + ")");
+        jdbcTemplate.execute("SELECT setval('_user_seq', " + (settings.users() + 100) + ")");
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
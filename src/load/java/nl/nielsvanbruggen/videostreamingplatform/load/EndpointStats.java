@@ -0,0 +1,33 @@
+package nl.nielsvanbruggen.videostreamingplatform.load;
+
+import java.util.Arrays;
+
+public record EndpointStats(
+        String endpoint,
+        int requests,
+        int errors,
+        double throughput,
+        double p50Millis,
+        double p99Millis
+) {
+    public static EndpointStats of(String endpoint, long[] latencyNanos, int errors, double seconds) {
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        return new EndpointStats(endpoint,
+                sorted.length,
+                errors,
+                sorted.length / seconds,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99));
+    }
+
+    public double errorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if(sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,54 @@
+package nl.nielsvanbruggen.videostreamingplatform.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+// Stored as <endpoint>.throughput and <endpoint>.p99 in load-baseline.properties. A run fails when
+// an endpoint lost more throughput or gained more p99 latency than the tolerance allows.
+// Values are written with Locale.ROOT, so a report reads back as a baseline on any machine.
+public class LoadBaseline {
+    private static final String RESOURCE = "/load-baseline.properties";
+    private final Properties baseline = new Properties();
+
+    public LoadBaseline() throws IOException {
+        try(InputStream in = LoadBaseline.class.getResourceAsStream(RESOURCE)) {
+            if(in != null) baseline.load(in);
+        }
+    }
+
+    public List<String> findRegressions(List<EndpointStats> stats, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        stats.forEach(endpoint -> {
+            String throughput = baseline.getProperty(endpoint.endpoint() + ".throughput");
+            if(throughput != null && endpoint.throughput() < Double.parseDouble(throughput) * (1 - tolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s throughput %.1f/s is below baseline %s/s", endpoint.endpoint(), endpoint.throughput(), throughput));
+            }
+            String p99 = baseline.getProperty(endpoint.endpoint() + ".p99");
+            if(p99 != null && endpoint.p99Millis() > Double.parseDouble(p99) * (1 + tolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s p99 %.1f ms is above baseline %s ms", endpoint.endpoint(), endpoint.p99Millis(), p99));
+            }
+        });
+        return regressions;
+    }
+
+    // Written in the baseline format, copy it over the baseline to accept a run.
+    public static void writeReport(Path path, List<EndpointStats> stats) throws IOException {
+        Properties report = new Properties();
+        stats.forEach(endpoint -> {
+            report.setProperty(endpoint.endpoint() + ".throughput", String.format(Locale.ROOT, "%.1f", endpoint.throughput()));
+            report.setProperty(endpoint.endpoint() + ".p50", String.format(Locale.ROOT, "%.1f", endpoint.p50Millis()));
+            report.setProperty(endpoint.endpoint() + ".p99", String.format(Locale.ROOT, "%.1f", endpoint.p99Millis()));
+        });
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try(OutputStream out = Files.newOutputStream(path)) {
+            report.store(out, "Load test report");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package nl.nielsvanbruggen.videostreamingplatform.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+// Runs a weighted mix of the requests a client makes on a fixed number of threads, each
+// thread sending its next request as soon as the previous one completed.
+public class LoadDriver {
+    private static final List<String> RAILS = List.of("recent-uploaded", "best-rated", "most-watched", "last-watched", "recent-watched");
+    private static final List<String> TYPES = List.of("", "MOVIE", "SERIES", "ANIME");
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final LoadSettings settings;
+    private final List<String> userTokens;
+    private final List<StreamTarget> streamTargets;
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private int totalWeight;
+
+    public LoadDriver(String baseUrl, LoadSettings settings, List<String> userTokens, List<StreamTarget> streamTargets) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.userTokens = userTokens;
+        this.streamTargets = streamTargets;
+
+        add("rail", 35, random -> get("/api/v1/media/" + pick(random, RAILS) + "?pagenumber=" + random.nextInt(3) +
+                "&pagesize=20&type=" + pick(random, TYPES), random));
+        add("search", 10, random -> get("/api/v1/media/?pagenumber=0&pagesize=20&search=" +
+                URLEncoder.encode("Media " + random.nextInt(1, settings.media() / 10), StandardCharsets.UTF_8), random));
+        add("detail", 20, random -> get("/api/v1/media/" + random.nextInt(1, settings.media() + 1), random));
+        add("progress", 25, random -> authorized(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/watched"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"id\": " + random.nextInt(1, settings.videoCount() + 1) +
+                        ", \"timestamp\": " + random.nextInt(2700) + "}")), random));
+        add("stream", 10, random -> {
+            StreamTarget target = pick(random, streamTargets);
+            long start = (long) random.nextInt(target.size() / StreamTarget.CHUNK_SIZE) * StreamTarget.CHUNK_SIZE;
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/stream/video/" + target.videoId() + "?token=" + target.token()))
+                    .header("Range", "bytes=" + start + "-")
+                    .GET()
+                    .build();
+        });
+    }
+
+    public List<EndpointStats> run() throws InterruptedException {
+        execute(settings.warmup());
+        return execute(settings.duration());
+    }
+
+    private List<EndpointStats> execute(Duration duration) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads());
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Recording>> futures = new ArrayList<>();
+        for(int i = 0; i < settings.threads(); i++) {
+            futures.add(executor.submit(() -> drive(deadline)));
+        }
+
+        Recording total = new Recording();
+        for(Future<Recording> future: futures) {
+            try {
+                total.add(future.get());
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Load thread failed.", ex.getCause());
+            }
+        }
+        executor.shutdown();
+
+        double seconds = duration.toMillis() / 1000.0;
+        return scenarios.stream()
+                .map(scenario -> EndpointStats.of(scenario.endpoint(),
+                        total.getLatencies(scenario.endpoint()),
+                        total.errors.getOrDefault(scenario.endpoint(), 0),
+                        seconds))
+                .toList();
+    }
+
+    private Recording drive(long deadline) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Recording recording = new Recording();
+        while(System.nanoTime() < deadline) {
+            Scenario scenario = pickScenario(random);
+            HttpRequest request = scenario.request().apply(random);
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                success = response.statusCode() < 400;
+            } catch (IOException ex) {
+                success = false;
+            }
+            recording.record(scenario.endpoint(), System.nanoTime() - start, success);
+        }
+        return recording;
+    }
+
+    private HttpRequest get(String path, Random random) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(), random);
+    }
+
+    private HttpRequest authorized(HttpRequest.Builder builder, Random random) {
+        return builder.header("Authorization", "Bearer " + pick(random, userTokens))
+                .build();
+    }
+
+    private void add(String endpoint, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+        scenarios.add(new Scenario(endpoint, weight, request));
+        totalWeight += weight;
+    }
+
+    private Scenario pickScenario(Random random) {
+        int value = random.nextInt(totalWeight);
+        for(Scenario scenario: scenarios) {
+            value -= scenario.weight();
+            if(value < 0) return scenario;
+        }
+        throw new IllegalStateException("Weights don't add up.");
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    public record StreamTarget(long videoId, String token, int size) {
+        public static final int CHUNK_SIZE = 1024 * 1024;
+    }
+
+    private record Scenario(String endpoint, int weight, Function<ThreadLocalRandom, HttpRequest> request) {}
+
+    private static class Recording {
+        private final Map<String, List<Long>> latencies = new HashMap<>();
+        private final Map<String, Integer> errors = new HashMap<>();
+
+        private void record(String endpoint, long nanos, boolean success) {
+            latencies.computeIfAbsent(endpoint, key -> new ArrayList<>()).add(nanos);
+            if(!success) errors.merge(endpoint, 1, Integer::sum);
+        }
+
+        private void add(Recording other) {
+            other.latencies.forEach((endpoint, values) -> latencies.computeIfAbsent(endpoint, key -> new ArrayList<>()).addAll(values));
+            other.errors.forEach((endpoint, count) -> errors.merge(endpoint, count, Integer::sum));
+        }
+
+        private long[] getLatencies(String endpoint) {
+            return latencies.getOrDefault(endpoint, List.of()).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package nl.nielsvanbruggen.videostreamingplatform.load;
+
+import java.time.Duration;
+
+// Sizes and durations of a run, each can be overridden with -Dload.<name>.
+public record LoadSettings(
+        int genres,
+        int media,
+        int videosPerMedia,
+        int users,
+        int watched,
+        int threads,
+        Duration warmup,
+        Duration duration,
+        double tolerance
+) {
+    public static LoadSettings fromSystemProperties() {
+        return new LoadSettings(
+                Integer.getInteger("load.genres", 25),
+                Integer.getInteger("load.media", 5000),
+                Integer.getInteger("load.videos-per-media", 10),
+                Integer.getInteger("load.users", 2000),
+                Integer.getInteger("load.watched", 2_000_000),
+                Integer.getInteger("load.threads", 16),
+                Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 15)),
+                Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 60)),
+                Double.parseDouble(System.getProperty("load.tolerance", "0.25")));
+    }
+
+    public int videoCount() {
+        return media * videosPerMedia;
+    }
+}
@@ -0,0 +1,108 @@
+package db.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Tickets and media requests stored their author as a serialized user, they now reference it.
+// Each serialized user is read back and matched on its username. Authors that can't be read
+// or no longer exist are left empty.
+@Slf4j
+public class V2__created_by_foreign_keys extends BaseJavaMigration {
+    private static final List<String> ALLOWED_PACKAGES = List.of("nl.nielsvanbruggen.videostreamingplatform.", "java.lang.", "java.time.");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        Map<String, Long> userIds = getUserIds(connection);
+
+        migrateCreatedBy(connection, "ticket", "fk_ticket_created_by", userIds);
+        migrateCreatedBy(connection, "media_request", "fk_media_request_created_by", userIds);
+    }
+
+    private void migrateCreatedBy(Connection connection, String table, String constraint, Map<String, Long> userIds) throws SQLException {
+        execute(connection, "ALTER TABLE " + table + " ADD COLUMN created_by_id BIGINT");
+
+        int unknown = 0;
+        try(Statement select = connection.createStatement();
+            ResultSet rows = select.executeQuery("SELECT id, created_by FROM " + table + " WHERE created_by IS NOT NULL");
+            PreparedStatement update = connection.prepareStatement("UPDATE " + table + " SET created_by_id = ? WHERE id = ?")) {
+            while(rows.next()) {
+                Long userId = readUsername(rows.getBytes("created_by"))
+                        .map(userIds::get)
+                        .orElse(null);
+                if(userId == null) {
+                    unknown++;
+                    continue;
+                }
+                update.setLong(1, userId);
+                update.setLong(2, rows.getLong("id"));
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+        if(unknown > 0) log.warn("{} rows of {} have an author that could not be matched to a user.", unknown, table);
+
+        execute(connection, "ALTER TABLE " + table + " DROP COLUMN created_by");
+        execute(connection, "ALTER TABLE " + table + " RENAME COLUMN created_by_id TO created_by");
+        execute(connection, "ALTER TABLE " + table + " ADD CONSTRAINT " + constraint + " FOREIGN KEY (created_by) REFERENCES _user");
+    }
+
+    private Map<String, Long> getUserIds(Connection connection) throws SQLException {
+        Map<String, Long> userIds = new HashMap<>();
+        try(Statement statement = connection.createStatement();
+            ResultSet rows = statement.executeQuery("SELECT id, username FROM _user")) {
+            while(rows.next()) {
+                userIds.put(rows.getString("username"), rows.getLong("id"));
+            }
+        }
+        return userIds;
+    }
+
+    private Optional<String> readUsername(byte[] bytes) {
+        try(ObjectInputStream in = new UserInputStream(new ByteArrayInputStream(bytes))) {
+            if(in.readObject() instanceof User user) return Optional.ofNullable(user.getUsername());
+        } catch (IOException | ClassNotFoundException ex) {
+            log.warn("Could not read a serialized author.", ex);
+        }
+        return Optional.empty();
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try(Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    // Only reads back the classes a serialized user consists of.
+    private static class UserInputStream extends ObjectInputStream {
+        UserInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass descriptor) throws IOException, ClassNotFoundException {
+            if(ALLOWED_PACKAGES.stream().noneMatch(descriptor.getName()::startsWith)) {
+                throw new InvalidClassException(descriptor.getName(), "Class is not allowed in a serialized user.");
+            }
+            return super.resolveClass(descriptor);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package nl.nielsvanbruggen.videostreamingplatform.actor.dto;
+
+public interface MediaActorView {
+    Long getMediaId();
+    Long getActorId();
+    String getFirstname();
+    String getLastname();
+}
@@ -1,14 +1,28 @@
 package nl.nielsvanbruggen.videostreamingplatform.actor.repository;
 
+import nl.nielsvanbruggen.videostreamingplatform.actor.dto.MediaActorView;
 import nl.nielsvanbruggen.videostreamingplatform.actor.model.MediaActor;
 import nl.nielsvanbruggen.videostreamingplatform.actor.id.MediaActorId;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MediaActorRepository extends JpaRepository<MediaActor, MediaActorId> {
     List<MediaActor> findAllByMedia(Media media);
 
     List<MediaActor> deleteByMedia(Media media);
+
+    @Query("SELECT ma.media.id AS mediaId, a.id AS actorId, a.firstname AS firstname, a.lastname AS lastname " +
+            "FROM MediaActor ma " +
+            "INNER JOIN ma.actor a")
+    List<MediaActorView> findAllMediaActorViews();
+
+    @Query("SELECT ma.media.id AS mediaId, a.id AS actorId, a.firstname AS firstname, a.lastname AS lastname " +
+            "FROM MediaActor ma " +
+            "INNER JOIN ma.actor a " +
+            "WHERE ma.media.id IN :mediaIds")
+    List<MediaActorView> findAllMediaActorViewsByMediaIdIn(Collection<Long> mediaIds);
 }
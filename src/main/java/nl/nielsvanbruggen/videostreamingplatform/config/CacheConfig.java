@@ -0,0 +1,74 @@
+package nl.nielsvanbruggen.videostreamingplatform.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.MediaEntryFilter;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.SharedCacheStore;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.TwoTierCache;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.TwoTierCacheManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+import static nl.nielsvanbruggen.videostreamingplatform.global.cache.CacheNames.*;
+
+@Configuration
+@EnableCaching
+@RequiredArgsConstructor
+public class CacheConfig {
+    private static final String DEFAULT_SPEC = "maximumSize=1000,expireAfterWrite=15m,recordStats";
+    // The last watched rail is reordered by every progress update, so it relies on a short
+    // time to live rather than on eviction. Principals are evicted on changes, the short time
+    // to live only bounds how long a user removed elsewhere stays authenticated.
+    private static final Map<String, String> SPECS = Map.of(
+            ALL_MEDIA, "maximumSize=2000,expireAfterWrite=15m,recordStats",
+            RECENT_UPLOADED_MEDIA, "maximumSize=500,expireAfterWrite=15m,recordStats",
+            BEST_RATED_MEDIA, "maximumSize=500,expireAfterWrite=30m,recordStats",
+            MOST_WATCHED_MEDIA, "maximumSize=500,expireAfterWrite=30m,recordStats",
+            LAST_WATCHED_MEDIA, "maximumSize=500,expireAfterWrite=1m,recordStats",
+            ALL_WATCHED, "maximumSize=10000,expireAfterWrite=30m,recordStats",
+            MEDIA_DETAIL, "maximumSize=1000,expireAfterWrite=30m,recordStats",
+            PRINCIPAL, "maximumSize=10000,expireAfterWrite=1m,recordStats"
+    );
+    private final EnvironmentProperties env;
+
+    // Without a shared store (see SharedCacheConfig) every node only caches locally.
+    @Bean
+    public CacheManager cacheManager(ObjectProvider<SharedCacheStore> sharedCacheStore) {
+        SharedCacheStore sharedStore = sharedCacheStore.getIfAvailable();
+        if(sharedStore != null) {
+            TwoTierCacheManager cacheManager = new TwoTierCacheManager(sharedStore,
+                    name -> Caffeine.from(getSpec(name)).build(),
+                    MediaEntryFilter::tagsOf);
+            // Created up front, so their metrics are bound on startup.
+            SPECS.keySet().forEach(cacheManager::getCache);
+            return cacheManager;
+        }
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeineSpec(CaffeineSpec.parse(getSpec("default")));
+        SPECS.keySet().forEach(name -> cacheManager.registerCustomCache(name,
+                Caffeine.from(getSpec(name)).build()));
+        return cacheManager;
+    }
+
+    // Hits and misses of the local tier, a hit in the shared store counts as a local miss.
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags);
+    }
+
+    private String getSpec(String name) {
+        String defaultSpec = SPECS.getOrDefault(name, DEFAULT_SPEC);
+        if(env.getCache() == null) return defaultSpec;
+        return env.getCache().getOrDefault(name, defaultSpec);
+    }
+}
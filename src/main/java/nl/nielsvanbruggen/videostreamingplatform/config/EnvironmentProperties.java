@@ -14,4 +14,8 @@ public class EnvironmentProperties {
     private Map<String, String> snapshot;
     private Map<String, String> ffprobe;
     private Map<String, String> ffmpeg;
+    private Map<String, String> cache;
+    private Map<String, String> recommendation;
+    private Map<String, String> queryProfiler;
+    private Map<String, String> tracing;
 }
@@ -1,5 +1,7 @@
 package nl.nielsvanbruggen.videostreamingplatform.config;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 @RequiredArgsConstructor
 public class LastActiveInterceptor implements HandlerInterceptor {
     private final UserActivityService userActivityService;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
@@ -22,7 +25,8 @@ public class LastActiveInterceptor implements HandlerInterceptor {
 
         if(authentication != null &&
                 !authentication.getName().equals("anonymousUser")) {
-            userActivityService.recordUserActivity(authentication);
+            Observation.createNotStarted("user.last-active", observationRegistry)
+                    .observe(() -> userActivityService.recordUserActivity(authentication));
         }
         return true;
     }
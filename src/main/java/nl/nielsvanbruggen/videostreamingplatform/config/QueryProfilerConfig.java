@@ -0,0 +1,34 @@
+package nl.nielsvanbruggen.videostreamingplatform.config;
+
+import nl.nielsvanbruggen.videostreamingplatform.global.sql.QueryCountFilter;
+import nl.nielsvanbruggen.videostreamingplatform.global.sql.QueryCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Enabled with env.query-profiler.enabled, logs requests issuing more than
+// env.query-profiler.log-threshold queries.
+@Configuration
+@ConditionalOnProperty(prefix = "env.query-profiler", name = "enabled", havingValue = "true")
+public class QueryProfilerConfig {
+    private static final String DEFAULT_LOG_THRESHOLD = "10";
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(EnvironmentProperties env) {
+        String logThreshold = env.getQueryProfiler() == null ?
+                DEFAULT_LOG_THRESHOLD :
+                env.getQueryProfiler().getOrDefault("log-threshold", DEFAULT_LOG_THRESHOLD);
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(new QueryCountFilter(Integer.parseInt(logThreshold)));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
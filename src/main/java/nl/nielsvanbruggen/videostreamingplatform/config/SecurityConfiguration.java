@@ -2,6 +2,8 @@ package nl.nielsvanbruggen.videostreamingplatform.config;
 
 import lombok.RequiredArgsConstructor;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.Role;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,6 +16,8 @@ import org.springframework.security.config.annotation.web.configurers.CorsConfig
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -24,6 +28,10 @@ public class SecurityConfiguration {
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
     private final CorsConfigurationSource configurationSource;
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+    @Value("${server.port:8080}")
+    private int serverPort;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
@@ -48,6 +56,9 @@ public class SecurityConfiguration {
                         .requestMatchers("/api/v1/stream/**").permitAll()
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/api/v1/change-password").permitAll()
+                        // Open on the management port, which is bound to localhost, see management.server in application.yml.example.
+                        .requestMatchers(new AndRequestMatcher(EndpointRequest.to("health", "prometheus"), onManagementPort())).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority(Role.ADMIN.name())
 //                        .requestMatchers("/v3/**").permitAll()
 //                        .requestMatchers("/swagger-ui/**").permitAll()
                         .anyRequest().authenticated())
@@ -57,4 +68,11 @@ public class SecurityConfiguration {
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
+
+    // Never matches when management shares the port of the application.
+    private RequestMatcher onManagementPort() {
+        return request -> managementPort > 0 &&
+                managementPort != serverPort &&
+                request.getLocalPort() == managementPort;
+    }
 }
@@ -0,0 +1,52 @@
+package nl.nielsvanbruggen.videostreamingplatform.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.InMemorySharedCacheStore;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.JsonCacheSerializer;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.RedisSharedCacheStore;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.SharedCacheStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+// Selected with env.shared-cache.type: "redis" shares caches between nodes, "in-memory"
+// shares them within the JVM only. Leaving it out keeps caching local.
+@Configuration
+public class SharedCacheConfig {
+    private static final String INVALIDATION_CHANNEL = "vsp:cache-invalidation";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "env.shared-cache", name = "type", havingValue = "in-memory")
+    public SharedCacheStore inMemorySharedCacheStore() {
+        return new InMemorySharedCacheStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "env.shared-cache", name = "type", havingValue = "redis")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "env.shared-cache", name = "type", havingValue = "redis")
+    public SharedCacheStore redisSharedCacheStore(RedisConnectionFactory connectionFactory,
+                                                  RedisMessageListenerContainer cacheInvalidationListenerContainer,
+                                                  ObjectMapper objectMapper) {
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(new JsonCacheSerializer(objectMapper.copy()));
+        redisTemplate.afterPropertiesSet();
+
+        return new RedisSharedCacheStore(redisTemplate,
+                cacheInvalidationListenerContainer,
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+}
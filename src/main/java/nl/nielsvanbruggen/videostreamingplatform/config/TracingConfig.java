@@ -0,0 +1,20 @@
+package nl.nielsvanbruggen.videostreamingplatform.config;
+
+import nl.nielsvanbruggen.videostreamingplatform.global.tracing.SlowTraceExporter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class TracingConfig {
+    private static final String DEFAULT_SLOW_THRESHOLD_MILLIS = "500";
+
+    @Bean
+    public SlowTraceExporter slowTraceExporter(EnvironmentProperties env) {
+        String threshold = env.getTracing() == null ?
+                DEFAULT_SLOW_THRESHOLD_MILLIS :
+                env.getTracing().getOrDefault("slow-threshold-millis", DEFAULT_SLOW_THRESHOLD_MILLIS);
+        return new SlowTraceExporter(Duration.ofMillis(Long.parseLong(threshold)));
+    }
+}
@@ -2,11 +2,22 @@ package nl.nielsvanbruggen.videostreamingplatform.genre;
 
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MediaGenreRepository extends JpaRepository<MediaGenre, MediaGenreId> {
     List<MediaGenre> findAllByMedia(Media media);
 
     List<MediaGenre> deleteByMedia(Media media);
+
+    @Query("SELECT g.media.id AS mediaId, g.genre.name AS genre " +
+            "FROM MediaGenre g")
+    List<MediaGenreView> findAllMediaGenreViews();
+
+    @Query("SELECT g.media.id AS mediaId, g.genre.name AS genre " +
+            "FROM MediaGenre g " +
+            "WHERE g.media.id IN :mediaIds")
+    List<MediaGenreView> findAllMediaGenreViewsByMediaIdIn(Collection<Long> mediaIds);
 }
@@ -0,0 +1,6 @@
+package nl.nielsvanbruggen.videostreamingplatform.genre;
+
+public interface MediaGenreView {
+    Long getMediaId();
+    String getGenre();
+}
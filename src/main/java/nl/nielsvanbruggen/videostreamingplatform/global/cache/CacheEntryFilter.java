@@ -0,0 +1,25 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+// Selects cache entries to evict. Filters are sent to other nodes as JSON, so every
+// implementation has to be listed as a subtype.
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "kind")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = MediaEntryFilter.class, name = "media"),
+        @JsonSubTypes.Type(value = TypeEntryFilter.class, name = "type")
+})
+public interface CacheEntryFilter {
+    boolean test(String key, Object value);
+
+    default boolean needsValue() {
+        return true;
+    }
+
+    // Filters with a tag match exactly the entries written with that tag, so the shared
+    // store finds them through its index instead of reading every value.
+    default String tag() {
+        return null;
+    }
+}
@@ -0,0 +1,12 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import java.util.List;
+
+public record CacheInvalidationMessage(
+        String nodeId,
+        String cacheName,
+        List<String> keys,
+        CacheEntryFilter filter,
+        boolean clear
+) {
+}
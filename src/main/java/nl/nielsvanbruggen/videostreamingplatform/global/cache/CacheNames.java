@@ -0,0 +1,23 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import java.util.List;
+
+public class CacheNames {
+    public static final String ALL_MEDIA = "allMedia";
+    public static final String RECENT_UPLOADED_MEDIA = "recentUploadedMedia";
+    public static final String BEST_RATED_MEDIA = "bestRatedMedia";
+    public static final String MOST_WATCHED_MEDIA = "mostWatchedMedia";
+    public static final String LAST_WATCHED_MEDIA = "lastWatchedMedia";
+    public static final String ALL_WATCHED = "allWatched";
+    public static final String MEDIA_DETAIL = "mediaDetail";
+    public static final String PRINCIPAL = "principal";
+    public static final List<String> MEDIA_RAILS = List.of(
+            ALL_MEDIA,
+            RECENT_UPLOADED_MEDIA,
+            BEST_RATED_MEDIA,
+            MOST_WATCHED_MEDIA,
+            LAST_WATCHED_MEDIA
+    );
+
+    private CacheNames() {}
+}
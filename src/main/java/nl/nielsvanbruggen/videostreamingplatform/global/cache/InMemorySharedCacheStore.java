@@ -0,0 +1,62 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Stand-in for a shared store within a single JVM, used for tests and single node setups.
+public class InMemorySharedCacheStore implements SharedCacheStore {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Expiration of every key per index.
+    private final Map<String, Map<String, Instant>> indexes = new ConcurrentHashMap<>();
+    private final List<Consumer<CacheInvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object get(String key) {
+        Entry entry = entries.get(key);
+        if(entry == null) return null;
+        if(entry.expiration().isBefore(Instant.now())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(String key, Object value, Duration timeToLive, Collection<String> indexKeys) {
+        Instant expiration = Instant.now().plus(timeToLive);
+        entries.put(key, new Entry(value, expiration));
+        indexKeys.forEach(indexKey -> indexes.computeIfAbsent(indexKey, k -> new ConcurrentHashMap<>())
+                .put(key, expiration));
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        keys.forEach(entries::remove);
+    }
+
+    @Override
+    public Set<String> members(String indexKey) {
+        Map<String, Instant> index = indexes.get(indexKey);
+        if(index == null) return Set.of();
+
+        Instant now = Instant.now();
+        index.values().removeIf(expiration -> expiration.isBefore(now));
+        return Set.copyOf(index.keySet());
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        listeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+
+    private record Entry(Object value, Instant expiration) {}
+}
@@ -0,0 +1,120 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.List;
+
+// Writes cached values and invalidation messages as JSON next to the name of their class.
+// Nested values are read back by their declared types, lists and pages keep the class of
+// their elements. Only classes of the application and java.lang are read back.
+public class JsonCacheSerializer implements RedisSerializer<Object> {
+    private static final List<String> ALLOWED_PACKAGES = List.of("nl.nielsvanbruggen.videostreamingplatform.", "java.lang.");
+    private final ObjectMapper objectMapper;
+
+    public JsonCacheSerializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if(value == null) return null;
+
+        try {
+            return objectMapper.writeValueAsBytes(toEnvelope(value));
+        } catch (IOException ex) {
+            throw new SerializationException("Could not write " + value.getClass().getName() + " as JSON.", ex);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if(bytes == null) return null;
+
+        try {
+            return fromEnvelope(objectMapper.readValue(bytes, Envelope.class));
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new SerializationException("Could not read cached JSON.", ex);
+        }
+    }
+
+    private Envelope toEnvelope(Object value) {
+        if(value instanceof NullValue) {
+            return new Envelope(Kind.NULL, null, null, null, null, null);
+        }
+        if(value instanceof Page<?> page) {
+            return new Envelope(Kind.PAGE,
+                    getElementType(page.getContent()),
+                    page.getPageable().isPaged() ? page.getNumber() : null,
+                    page.getPageable().isPaged() ? page.getSize() : null,
+                    page.getTotalElements(),
+                    objectMapper.valueToTree(page.getContent()));
+        }
+        if(value instanceof List<?> list) {
+            return new Envelope(Kind.LIST, getElementType(list), null, null, null, objectMapper.valueToTree(list));
+        }
+        return new Envelope(Kind.VALUE, value.getClass().getName(), null, null, null, objectMapper.valueToTree(value));
+    }
+
+    private Object fromEnvelope(Envelope envelope) throws IOException, ClassNotFoundException {
+        return switch(envelope.kind()) {
+            case NULL -> NullValue.INSTANCE;
+            case VALUE -> objectMapper.treeToValue(envelope.value(), load(envelope.type()));
+            case LIST -> readList(envelope);
+            case PAGE -> {
+                Pageable pageable = envelope.pageNumber() == null ?
+                        Pageable.unpaged() :
+                        PageRequest.of(envelope.pageNumber(), envelope.pageSize());
+                yield new PageImpl<>(readList(envelope), pageable, envelope.total());
+            }
+        };
+    }
+
+    private List<?> readList(Envelope envelope) throws IOException, ClassNotFoundException {
+        if(envelope.type() == null) return List.of();
+
+        JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, load(envelope.type()));
+        return objectMapper.readerFor(listType).readValue(envelope.value());
+    }
+
+    private String getElementType(List<?> list) {
+        return list.stream()
+                .filter(element -> element != null)
+                .findFirst()
+                .map(element -> element.getClass().getName())
+                .orElse(null);
+    }
+
+    private Class<?> load(String type) throws ClassNotFoundException {
+        if(ALLOWED_PACKAGES.stream().noneMatch(type::startsWith)) {
+            throw new ClassNotFoundException("Class " + type + " is not allowed in the cache.");
+        }
+        return Class.forName(type, false, getClass().getClassLoader());
+    }
+
+    enum Kind {
+        NULL,
+        VALUE,
+        LIST,
+        PAGE
+    }
+
+    record Envelope(
+            Kind kind,
+            String type,
+            Integer pageNumber,
+            Integer pageSize,
+            Long total,
+            JsonNode value
+    ) {
+    }
+}
@@ -0,0 +1,99 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.media.event.MediaChangedEvent;
+import nl.nielsvanbruggen.videostreamingplatform.media.event.RatingChangedEvent;
+import nl.nielsvanbruggen.videostreamingplatform.media.event.ReviewChangedEvent;
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+import nl.nielsvanbruggen.videostreamingplatform.video.event.VideoChangedEvent;
+import nl.nielsvanbruggen.videostreamingplatform.watched.event.WatchedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+import static nl.nielsvanbruggen.videostreamingplatform.global.cache.CacheNames.*;
+
+// Evicts only the rail entries a domain event can have made stale. Entries whose ordering
+// depends on the change are evicted per type, entries that merely show the media are
+// evicted when they contain it.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MediaCacheInvalidator {
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMediaChanged(MediaChangedEvent event) {
+        MEDIA_RAILS.forEach(cacheName -> evictByType(cacheName, event.type()));
+        evictDetail(event.mediaId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        evictByType(BEST_RATED_MEDIA, event.type());
+        List.of(ALL_MEDIA, RECENT_UPLOADED_MEDIA, MOST_WATCHED_MEDIA, LAST_WATCHED_MEDIA)
+                .forEach(cacheName -> evictContaining(cacheName, event.mediaId()));
+        evictDetail(event.mediaId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        MEDIA_RAILS.forEach(cacheName -> evictContaining(cacheName, event.mediaId()));
+        evictDetail(event.mediaId());
+    }
+
+    // Cards show the first video of a media, so rails holding the media are evicted as well.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        MEDIA_RAILS.forEach(cacheName -> evictContaining(cacheName, event.mediaId()));
+        evictDetail(event.mediaId());
+    }
+
+    // Progress updates on an already watched video don't change view counts, the
+    // last watched rail is kept fresh by its short time to live instead.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWatched(WatchedEvent event) {
+        if(!event.firstView()) return;
+
+        evictByType(MOST_WATCHED_MEDIA, event.type());
+        evictByType(LAST_WATCHED_MEDIA, event.type());
+        List.of(ALL_MEDIA, RECENT_UPLOADED_MEDIA, BEST_RATED_MEDIA)
+                .forEach(cacheName -> evictContaining(cacheName, event.mediaId()));
+        evictDetail(event.mediaId());
+    }
+
+    private void evictDetail(long mediaId) {
+        Cache cache = cacheManager.getCache(MEDIA_DETAIL);
+        if(cache != null) cache.evict(mediaId);
+    }
+
+    private void evictByType(String cacheName, Type type) {
+        evictIf(cacheName, new TypeEntryFilter(type));
+    }
+
+    private void evictContaining(String cacheName, long mediaId) {
+        evictIf(cacheName, new MediaEntryFilter(mediaId));
+    }
+
+    private void evictIf(String cacheName, CacheEntryFilter filter) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if(cache == null) return;
+
+        if(cache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.evictIf(filter);
+            return;
+        }
+        if(cache instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().asMap().entrySet()
+                    .removeIf(entry -> filter.test(String.valueOf(entry.getKey()), entry.getValue()));
+            return;
+        }
+        log.debug("Cache {} does not support selective eviction, clearing it.", cacheName);
+        cache.clear();
+    }
+}
@@ -0,0 +1,38 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+
+import java.util.List;
+
+// Builds the keys of the media rail caches. The type filter is always the first segment,
+// so entries can be invalidated per type without knowing the rest of the key.
+public class MediaCacheKey {
+    public static final String PAGE = "T(nl.nielsvanbruggen.videostreamingplatform.global.cache.MediaCacheKey)" +
+            ".page(#type, #pageNumber, #pageSize)";
+    public static final String FILTER = "T(nl.nielsvanbruggen.videostreamingplatform.global.cache.MediaCacheKey)" +
+            ".filter(#type, #genres, #search, #pageNumber, #pageSize)";
+    private static final String SEPARATOR = "|";
+
+    private MediaCacheKey() {}
+
+    public static String page(String type, int pageNumber, int pageSize) {
+        return String.join(SEPARATOR, type, String.valueOf(pageNumber), String.valueOf(pageSize));
+    }
+
+    public static String filter(String type, List<String> genres, String search, int pageNumber, int pageSize) {
+        String sortedGenres = String.join(",", genres.stream()
+                .sorted()
+                .toList());
+        return String.join(SEPARATOR, page(type, pageNumber, pageSize), sortedGenres, search);
+    }
+
+    // Mirrors the "m.type LIKE '%' || :type || '%'" filter of the rail queries.
+    public static boolean matchesType(Object key, Type type) {
+        if(type == null) return false;
+
+        String stringKey = String.valueOf(key);
+        int end = stringKey.indexOf(SEPARATOR);
+        String typeFilter = end == -1 ? stringKey : stringKey.substring(0, end);
+        return type.name().contains(typeFilter);
+    }
+}
@@ -0,0 +1,37 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTO;
+import org.springframework.data.domain.Page;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public record MediaEntryFilter(
+        long mediaId
+) implements CacheEntryFilter {
+    // Tags a page of media with the ids of the media on it.
+    public static Set<String> tagsOf(Object value) {
+        if(!(value instanceof Page<?> page)) return Set.of();
+
+        return page.getContent().stream()
+                .filter(MediaDTO.class::isInstance)
+                .map(media -> tagOf(((MediaDTO) media).getId()))
+                .collect(Collectors.toSet());
+    }
+
+    private static String tagOf(long mediaId) {
+        return "media:" + mediaId;
+    }
+
+    @Override
+    public boolean test(String key, Object value) {
+        return value instanceof Page<?> page &&
+                page.getContent().stream()
+                        .anyMatch(media -> media instanceof MediaDTO dto && dto.getId() == mediaId);
+    }
+
+    @Override
+    public String tag() {
+        return tagOf(mediaId);
+    }
+}
@@ -0,0 +1,116 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Failures are logged and treated as misses, so an unavailable Redis degrades to local caching.
+// Indexes are sorted sets of keys scored by their expiration, written in the same round trip
+// as the entry. Expired keys are dropped from an index whenever a key is added to it.
+@Slf4j
+@RequiredArgsConstructor
+public class RedisSharedCacheStore implements SharedCacheStore {
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic topic;
+
+    @Override
+    public Object get(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (DataAccessException | SerializationException ex) {
+            log.warn("Could not read shared cache entry {}: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void put(String key, Object value, Duration timeToLive, Collection<String> indexKeys) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        long now = System.currentTimeMillis();
+        try {
+            byte[] rawValue = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.stringCommands().set(rawKey, rawValue, Expiration.from(timeToLive), RedisStringCommands.SetOption.upsert());
+                for(String indexKey: indexKeys) {
+                    byte[] rawIndexKey = indexKey.getBytes(StandardCharsets.UTF_8);
+                    connection.zSetCommands().zAdd(rawIndexKey, now + timeToLive.toMillis(), rawKey);
+                    connection.zSetCommands().zRemRangeByScore(rawIndexKey, Double.NEGATIVE_INFINITY, now);
+                    // Entries of a cache share their time to live, so the index outlives all of them.
+                    connection.keyCommands().pExpire(rawIndexKey, timeToLive.toMillis());
+                }
+                return null;
+            });
+        } catch (DataAccessException | SerializationException ex) {
+            log.warn("Could not write shared cache entry {}: {}", key, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        if(keys.isEmpty()) return;
+        try {
+            redisTemplate.delete(keys);
+        } catch (DataAccessException ex) {
+            log.warn("Could not delete {} shared cache entries: {}", keys.size(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public Set<String> members(String indexKey) {
+        byte[] rawIndexKey = indexKey.getBytes(StandardCharsets.UTF_8);
+        try {
+            Set<byte[]> members = redisTemplate.execute((RedisCallback<Set<byte[]>>) connection -> connection.zSetCommands()
+                    .zRangeByScore(rawIndexKey, System.currentTimeMillis(), Double.POSITIVE_INFINITY));
+            if(members == null) return Set.of();
+
+            return members.stream()
+                    .map(member -> new String(member, StandardCharsets.UTF_8))
+                    .collect(Collectors.toSet());
+        } catch (DataAccessException ex) {
+            log.warn("Could not read shared cache index {}: {}", indexKey, ex.getMessage());
+            return Set.of();
+        }
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        try {
+            redisTemplate.convertAndSend(topic.getTopic(), message);
+        } catch (DataAccessException ex) {
+            log.warn("Could not publish cache invalidation: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            Object body;
+            try {
+                body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            } catch (SerializationException ex) {
+                log.warn("Could not read cache invalidation: {}", ex.getMessage());
+                return;
+            }
+            if(body instanceof CacheInvalidationMessage invalidationMessage) {
+                listener.accept(invalidationMessage);
+            }
+        }, topic);
+    }
+}
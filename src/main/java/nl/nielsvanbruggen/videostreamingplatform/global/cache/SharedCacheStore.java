@@ -0,0 +1,24 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Second cache tier shared by all nodes, including the channel used to tell other nodes
+// which entries of their local tier to drop.
+public interface SharedCacheStore {
+    Object get(String key);
+
+    // The key is also added to the given indexes, until the entry expires.
+    void put(String key, Object value, Duration timeToLive, Collection<String> indexKeys);
+
+    void delete(Collection<String> keys);
+
+    // Keys added to the index whose entries have not expired yet.
+    Set<String> members(String indexKey);
+
+    void publish(CacheInvalidationMessage message);
+
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+}
@@ -0,0 +1,145 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+// Local Caffeine cache in front of a shared store. Keys are stored as strings so they
+// mean the same on every node. Every write and eviction is published, so other nodes
+// drop their local copy and read the new value from the shared store.
+// Shared keys are indexed per cache and per tag of their value, so eviction never scans Redis.
+public class TwoTierCache extends AbstractValueAdaptingCache {
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(15);
+    private static final String ALL = "all";
+    private final String name;
+    private final String keyPrefix;
+    private final String indexPrefix;
+    private final Function<Object, Set<String>> tagger;
+    private final Cache<String, Object> localCache;
+    private final SharedCacheStore sharedStore;
+    private final String nodeId;
+    private final Duration timeToLive;
+
+    public TwoTierCache(String name, Cache<String, Object> localCache, SharedCacheStore sharedStore, String nodeId,
+                        Function<Object, Set<String>> tagger) {
+        super(true);
+        this.name = name;
+        this.keyPrefix = "vsp:cache:" + name + ":";
+        this.indexPrefix = "vsp:cache-index:" + name + ":";
+        this.tagger = tagger;
+        this.localCache = localCache;
+        this.sharedStore = sharedStore;
+        this.nodeId = nodeId;
+        // Shared entries live as long as local ones, so the shared tier never serves
+        // a value the local spec would already have expired.
+        this.timeToLive = localCache.policy().expireAfterWrite()
+                .map(Policy.FixedExpiration::getExpiresAfter)
+                .orElse(DEFAULT_TIME_TO_LIVE);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Cache<String, Object> getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String stringKey = String.valueOf(key);
+        Object value = localCache.getIfPresent(stringKey);
+        if(value != null) return value;
+
+        value = sharedStore.get(keyPrefix + stringKey);
+        if(value != null) localCache.put(stringKey, value);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if(wrapper != null) return (T) wrapper.get();
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String stringKey = String.valueOf(key);
+        Object storeValue = toStoreValue(value);
+        localCache.put(stringKey, storeValue);
+
+        List<String> indexKeys = new ArrayList<>();
+        indexKeys.add(indexPrefix + ALL);
+        tagger.apply(storeValue).forEach(tag -> indexKeys.add(indexPrefix + tag));
+        sharedStore.put(keyPrefix + stringKey, storeValue, timeToLive, indexKeys);
+        sharedStore.publish(new CacheInvalidationMessage(nodeId, name, List.of(stringKey), null, false));
+    }
+
+    @Override
+    public void evict(Object key) {
+        String stringKey = String.valueOf(key);
+        localCache.invalidate(stringKey);
+        sharedStore.delete(List.of(keyPrefix + stringKey));
+        sharedStore.publish(new CacheInvalidationMessage(nodeId, name, List.of(stringKey), null, false));
+    }
+
+    @Override
+    public void clear() {
+        localCache.invalidateAll();
+        sharedStore.delete(sharedStore.members(indexPrefix + ALL));
+        sharedStore.publish(new CacheInvalidationMessage(nodeId, name, null, null, true));
+    }
+
+    // The filter itself is published instead of the matching keys, because other nodes can
+    // hold local entries that already expired from the shared store.
+    public void evictIf(CacheEntryFilter filter) {
+        Collection<String> sharedKeys = filter.tag() != null ?
+                sharedStore.members(indexPrefix + filter.tag()) :
+                sharedStore.members(indexPrefix + ALL).stream()
+                        .filter(sharedKey -> filter.test(sharedKey.substring(keyPrefix.length()),
+                                filter.needsValue() ? fromStoreValue(sharedStore.get(sharedKey)) : null))
+                        .toList();
+        sharedStore.delete(sharedKeys);
+        evictLocal(filter);
+        sharedStore.publish(new CacheInvalidationMessage(nodeId, name, null, filter, false));
+    }
+
+    void onMessage(CacheInvalidationMessage message) {
+        if(nodeId.equals(message.nodeId())) return;
+
+        if(message.clear()) {
+            localCache.invalidateAll();
+        }
+        else if(message.filter() != null) {
+            evictLocal(message.filter());
+        }
+        else if(message.keys() != null) {
+            localCache.invalidateAll(message.keys());
+        }
+    }
+
+    private void evictLocal(CacheEntryFilter filter) {
+        localCache.asMap().entrySet()
+                .removeIf(entry -> filter.test(entry.getKey(), fromStoreValue(entry.getValue())));
+    }
+}
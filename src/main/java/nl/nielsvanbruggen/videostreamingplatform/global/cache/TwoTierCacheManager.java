@@ -0,0 +1,44 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public class TwoTierCacheManager implements CacheManager {
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString();
+    private final SharedCacheStore sharedStore;
+    private final Function<String, Cache<String, Object>> localCacheFactory;
+    private final Function<Object, Set<String>> tagger;
+
+    // The tagger names the tags of a cached value, see CacheEntryFilter.tag.
+    public TwoTierCacheManager(SharedCacheStore sharedStore, Function<String, Cache<String, Object>> localCacheFactory,
+                               Function<Object, Set<String>> tagger) {
+        this.sharedStore = sharedStore;
+        this.localCacheFactory = localCacheFactory;
+        this.tagger = tagger;
+        sharedStore.subscribe(this::onMessage);
+    }
+
+    @Override
+    public TwoTierCache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName ->
+                new TwoTierCache(cacheName, localCacheFactory.apply(cacheName), sharedStore, nodeId, tagger));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+
+    private void onMessage(CacheInvalidationMessage message) {
+        TwoTierCache cache = caches.get(message.cacheName());
+        if(cache != null) cache.onMessage(message);
+    }
+}
@@ -0,0 +1,17 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+
+public record TypeEntryFilter(
+        Type type
+) implements CacheEntryFilter {
+    @Override
+    public boolean test(String key, Object value) {
+        return MediaCacheKey.matchesType(key, type);
+    }
+
+    @Override
+    public boolean needsValue() {
+        return false;
+    }
+}
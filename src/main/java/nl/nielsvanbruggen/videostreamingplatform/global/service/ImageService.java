@@ -1,20 +1,38 @@
 package nl.nielsvanbruggen.videostreamingplatform.global.service;
 
-import com.sun.jdi.InternalException;
+import nl.nielsvanbruggen.videostreamingplatform.global.util.BlurHashUtil;
+import nl.nielsvanbruggen.videostreamingplatform.global.util.ImageVariantUtil;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
-import javax.imageio.ImageIO;
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Iterator;
 
+// Only decodes the part of the upload that ends up in the thumbnail, subsampled to at most twice
+// the thumbnail size. Halving steps from there keep bilinear scaling sharp without the cost of
+// a smooth scale over the full source.
+// Smaller variants are scaled down from the previous one, see ImageVariantUtil for their names.
 @Component
 public class ImageService {
+    private static final float QUALITY = 0.85f;
+    // The JDK has no WebP encoder, WebP variants are written once an ImageIO plugin provides one.
+    private static final boolean WEBP_AVAILABLE = ImageIO.getImageWritersByFormatName(ImageVariantUtil.WEBP).hasNext();
+    // Decoding to twice the target size leaves enough detail for the final downscale.
+    private static final int SUBSAMPLING_MARGIN = 2;
+    // A blurred placeholder has no detail to lose, 32 pixels keep encoding it well below a millisecond.
+    private static final int PLACEHOLDER_SIZE = 32;
     @Value("${env.thumbnail.width}")
     private String imageWidth;
     @Value("${env.thumbnail.height}")
@@ -22,43 +40,138 @@ public class ImageService {
     @Value("${env.thumbnail.root}")
     private String rootPath;
 
-    public void saveImage(InputStream imageStream, String imageName) throws IOException {
-        try {
-            BufferedImage image = ImageIO.read(imageStream);
-            BufferedImage resizedImage = cropImage(image);
-            writeImageAsJpg(resizedImage, imageName);
-        } catch (IOException ex) {
-            throw new IOException(ex.getMessage());
-        }
-    }
-    private BufferedImage cropImage(BufferedImage bufferedImage) {
+    // Returns the placeholder of the saved image.
+    public String saveImage(InputStream imageStream, String imageName) throws IOException {
         final int width = Integer.parseInt(imageWidth);
         final int height = Integer.parseInt(imageHeight);
-        final BufferedImage convertedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
 
-        //Checks aspect ratio.
-        if(((double) bufferedImage.getWidth() / bufferedImage.getHeight()) > ((double) width / height)) {
-            Image img = bufferedImage.getScaledInstance(-1, height, Image.SCALE_DEFAULT);
-            final int off = (img.getWidth(null) - width) / 2;
-            convertedImage.createGraphics().drawImage(img, -off, 0, Color.WHITE,null);
+        BufferedImage image = read(imageStream, width, height);
+        BufferedImage resizedImage = resize(image, width, height);
+        Path path = Path.of(rootPath + "/" + imageName);
+        writeImage(resizedImage, path, ImageVariantUtil.JPG);
+        saveVariants(resizedImage, path, ImageVariantUtil.THUMBNAIL_WIDTHS);
+        return createPlaceholder(resizedImage);
+    }
 
-            return convertedImage;
+    public String createPlaceholder(Path path) throws IOException {
+        try(InputStream imageStream = Files.newInputStream(path)) {
+            return createPlaceholder(read(imageStream, PLACEHOLDER_SIZE, 0));
         }
+    }
+
+    // Portrait images get more vertical components, landscape images more horizontal ones.
+    public String createPlaceholder(BufferedImage image) {
+        final int width = Math.min(PLACEHOLDER_SIZE, image.getWidth());
+        final int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        BufferedImage placeholder = resize(image, width, height);
+
+        return height > width ?
+                BlurHashUtil.encode(placeholder, 3, 4) :
+                BlurHashUtil.encode(placeholder, 4, 3);
+    }
+
+    // Writes the variants of an image already stored at full size in the original path.
+    public void saveVariants(BufferedImage image, Path original, int[] widths) throws IOException {
+        if(WEBP_AVAILABLE) writeImage(image, ImageVariantUtil.getVariant(original, null, ImageVariantUtil.WEBP), ImageVariantUtil.WEBP);
 
-        Image img = bufferedImage.getScaledInstance(width, -1, Image.SCALE_DEFAULT);
-        final int off = (img.getHeight(null) - height) / 2;
-        convertedImage.createGraphics().drawImage(img, 0, -off, Color.WHITE,null);
+        BufferedImage current = image;
+        for(int i = widths.length - 1; i >= 0; i--) {
+            final int width = widths[i];
+            if(width >= image.getWidth()) continue;
 
-        return convertedImage;
+            final int height = (int) Math.round((double) image.getHeight() * width / image.getWidth());
+            current = resize(current, width, height);
+            writeImage(current, ImageVariantUtil.getVariant(original, width, ImageVariantUtil.JPG), ImageVariantUtil.JPG);
+            if(WEBP_AVAILABLE) writeImage(current, ImageVariantUtil.getVariant(original, width, ImageVariantUtil.WEBP), ImageVariantUtil.WEBP);
+        }
     }
 
-    private void writeImageAsJpg(BufferedImage bufferedImage, String name) throws IOException {
-        final FileOutputStream fileOutputStream = new FileOutputStream(rootPath + "/" + name);
-        final boolean canWrite = ImageIO.write(bufferedImage, "jpg", fileOutputStream);
-        fileOutputStream.close();
+    // Reads the centered region with the aspect ratio of the target, a height of 0 reads the whole image.
+    private BufferedImage read(InputStream imageStream, int width, int height) throws IOException {
+        try(ImageInputStream input = ImageIO.createImageInputStream(imageStream)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if(readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format.");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                final int sourceWidth = reader.getWidth(0);
+                final int sourceHeight = reader.getHeight(0);
 
-        if (!canWrite) {
-            throw new IOException("Failed to write image.");
+                Rectangle region;
+                //Checks aspect ratio.
+                if(height == 0) {
+                    region = new Rectangle(0, 0, sourceWidth, sourceHeight);
+                } else if(((double) sourceWidth / sourceHeight) > ((double) width / height)) {
+                    int regionWidth = (int) Math.round((double) sourceHeight * width / height);
+                    region = new Rectangle((sourceWidth - regionWidth) / 2, 0, regionWidth, sourceHeight);
+                } else {
+                    int regionHeight = (int) Math.round((double) sourceWidth * height / width);
+                    region = new Rectangle(0, (sourceHeight - regionHeight) / 2, sourceWidth, regionHeight);
+                }
+
+                int subsampling = Math.max(1, region.width / (width * SUBSAMPLING_MARGIN));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
         }
     }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage current = image;
+        while(current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = scale(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return scale(current, width, height);
+    }
+
+    // Also flattens transparency on white, as JPEG has no alpha channel.
+    private BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage scaledImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaledImage.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaledImage;
+    }
+
+    // Written next to the target and renamed, so a thumbnail being served is never half written.
+    private void writeImage(BufferedImage bufferedImage, Path path, String format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if(param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            if(param.getCompressionTypes() != null) param.setCompressionType(param.getCompressionTypes()[0]);
+            param.setCompressionQuality(QUALITY);
+        }
+        if(param.canWriteProgressive()) param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp", getImageAttributes());
+        try {
+            try(ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(bufferedImage, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Temp files are only readable by their owner, images are created rw-r--r-- (minus the umask) so other users can serve them.
+    private static FileAttribute<?>[] getImageAttributes() {
+        if(!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) return new FileAttribute<?>[0];
+        return new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-r--r--"))};
+    }
 }
@@ -0,0 +1,38 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Counts the statements of each request, including the ones issued while authenticating.
+// The report is left on the request, so tests can assert a query budget per endpoint.
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+    public static final String REPORT_ATTRIBUTE = QueryCountFilter.class.getName() + ".report";
+    private static final int MAX_LOGGED_CALL_SITES = 5;
+    private final int logThreshold;
+
+    public QueryCountFilter(int logThreshold) {
+        this.logThreshold = logThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryReport report = QueryCounter.stop();
+            request.setAttribute(REPORT_ATTRIBUTE, report);
+            if(report.getCount() > logThreshold) {
+                log.warn("{} {} issued {} queries, worst call sites:\n{}", request.getMethod(), request.getRequestURI(),
+                        report.getCount(), String.join("\n", report.getWorstCallSites(MAX_LOGGED_CALL_SITES)));
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Optional;
+
+// Counts the statements Hibernate prepares on the current thread between start and stop.
+// Threads without a running count only pay for the thread local lookup.
+public class QueryCounter implements StatementInspector {
+    private static final ThreadLocal<QueryReport> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new QueryReport());
+    }
+
+    public static QueryReport stop() {
+        QueryReport report = Optional.ofNullable(CURRENT.get())
+                .orElseGet(QueryReport::new);
+        CURRENT.remove();
+        return report;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryReport report = CURRENT.get();
+        if(report != null) report.record(sql);
+        return sql;
+    }
+}
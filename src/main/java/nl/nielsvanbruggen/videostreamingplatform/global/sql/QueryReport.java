@@ -0,0 +1,54 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.sql;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Statements executed within one QueryCounter scope, grouped by the application code that
+// triggered them. A call site with many statements usually is a lazy load per row.
+public class QueryReport {
+    private static final String APPLICATION_PACKAGE = "nl.nielsvanbruggen.videostreamingplatform";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private final Map<String, CallSite> callSites = new HashMap<>();
+    private final List<String> statements = new ArrayList<>();
+    private int count;
+
+    void record(String sql) {
+        count++;
+        statements.add(sql);
+        String location = STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(frame -> !frame.getClassName().startsWith(QueryReport.class.getPackageName()))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+        callSites.computeIfAbsent(location, key -> new CallSite(key, sql)).count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // In execution order, with the parameters still as placeholders.
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    public List<String> getWorstCallSites(int limit) {
+        return callSites.values().stream()
+                .sorted(Comparator.comparingInt((CallSite callSite) -> callSite.count).reversed())
+                .limit(limit)
+                .map(callSite -> String.format("%dx %s: %s", callSite.count, callSite.location, callSite.sql))
+                .collect(Collectors.toList());
+    }
+
+    private static class CallSite {
+        private final String location;
+        private final String sql;
+        private int count;
+
+        private CallSite(String location, String sql) {
+            this.location = location;
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.tracing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+
+// Exports spans to the log, without a collector. Spans are held per trace until the root span
+// ends, traces whose root took longer than the threshold are logged as a tree of span durations.
+// Only sampled traces reach the exporter, see management.tracing.sampling.probability.
+@Slf4j
+public class SlowTraceExporter implements SpanExporter {
+    private static final Duration MAX_TRACE_DURATION = Duration.ofMinutes(1);
+    private static final int MAX_PENDING_TRACES = 10000;
+    private final Cache<String, List<SpanData>> pendingTraces = Caffeine.newBuilder()
+            .expireAfterWrite(MAX_TRACE_DURATION)
+            .maximumSize(MAX_PENDING_TRACES)
+            .build();
+    private final long thresholdNanos;
+
+    public SlowTraceExporter(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        spans.forEach(span -> {
+            List<SpanData> trace = pendingTraces.get(span.getTraceId(), traceId -> new ArrayList<>());
+            trace.add(span);
+            if(span.getParentSpanContext().isValid() && !span.getParentSpanContext().isRemote()) return;
+
+            pendingTraces.invalidate(span.getTraceId());
+            if(span.getEndEpochNanos() - span.getStartEpochNanos() > thresholdNanos) {
+                log.warn("Slow trace {}:\n{}", span.getTraceId(), render(span, trace));
+            }
+        });
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pendingTraces.invalidateAll();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    static String render(SpanData root, List<SpanData> trace) {
+        Map<String, List<SpanData>> children = new HashMap<>();
+        trace.forEach(span -> children.computeIfAbsent(span.getParentSpanId(), key -> new ArrayList<>()).add(span));
+        StringBuilder builder = new StringBuilder();
+        render(root, children, 0, builder);
+        return builder.toString();
+    }
+
+    private static void render(SpanData span, Map<String, List<SpanData>> children, int depth, StringBuilder builder) {
+        builder.append("  ".repeat(depth))
+                .append(span.getName())
+                .append(String.format(" %.1f ms%n", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0));
+        children.getOrDefault(span.getSpanId(), List.of()).stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .forEach(child -> render(child, children, depth + 1, builder));
+    }
+}
@@ -0,0 +1,51 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+// Opens a span around every service method and repository call, so a trace shows where the
+// time of a request went. Calls within the same bean aren't proxied and show up as one span.
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TracingAspect {
+    private final ObservationRegistry observationRegistry;
+
+    @Around("within(nl.nielsvanbruggen.videostreamingplatform..*) && @within(org.springframework.stereotype.Service)")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("service", joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Methods like findById are declared by Spring Data, name them after the repository instead.
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getTarget());
+        String type = interfaces.length > 0 ?
+                interfaces[0].getSimpleName() :
+                joinPoint.getSignature().getDeclaringType().getSimpleName();
+        return observe("repository", type, joinPoint);
+    }
+
+    private Object observe(String layer, String type, ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted(layer, observationRegistry)
+                .contextualName(type + "." + method)
+                .lowCardinalityKeyValue("class", type)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try(Observation.Scope scope = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            observation.error(ex);
+            throw ex;
+        } finally {
+            observation.stop();
+        }
+    }
+}
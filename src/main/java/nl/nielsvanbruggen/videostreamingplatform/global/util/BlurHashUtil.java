@@ -0,0 +1,96 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.util;
+
+import java.awt.image.BufferedImage;
+
+// Encodes an image as a BlurHash (https://blurha.sh), a string of a few dozen characters clients
+// decode into a blurred placeholder. Meant for images of a few dozen pixels, the cost grows with
+// pixels times components.
+public class BlurHashUtil {
+    private static final String BASE83 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHashUtil() {}
+
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if(componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("Components should be between 1 and 9.");
+        }
+
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        float[][] linear = new float[3][pixels.length];
+        for(int i = 0; i < pixels.length; i++) {
+            linear[0][i] = toLinear((pixels[i] >> 16) & 0xFF);
+            linear[1][i] = toLinear((pixels[i] >> 8) & 0xFF);
+            linear[2][i] = toLinear(pixels[i] & 0xFF);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][3];
+        for(int j = 0; j < componentsY; j++) {
+            for(int i = 0; i < componentsX; i++) {
+                double normalisation = i == 0 && j == 0 ? 1 : 2;
+                double[] factor = factors[j * componentsX + i];
+                for(int y = 0; y < height; y++) {
+                    double basisY = Math.cos(Math.PI * j * y / height);
+                    for(int x = 0; x < width; x++) {
+                        double basis = normalisation * Math.cos(Math.PI * i * x / width) * basisY;
+                        int index = y * width + x;
+                        factor[0] += basis * linear[0][index];
+                        factor[1] += basis * linear[1][index];
+                        factor[2] += basis * linear[2][index];
+                    }
+                }
+                for(int c = 0; c < 3; c++) factor[c] /= width * height;
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83((componentsX - 1) + (componentsY - 1) * 9, 1, hash);
+
+        double maximumValue = 1;
+        if(factors.length > 1) {
+            double actualMaximumValue = 0;
+            for(int i = 1; i < factors.length; i++) {
+                for(double value: factors[i]) actualMaximumValue = Math.max(actualMaximumValue, Math.abs(value));
+            }
+            int quantisedMaximumValue = (int) Math.max(0, Math.min(82, Math.floor(actualMaximumValue * 166 - 0.5)));
+            maximumValue = (quantisedMaximumValue + 1) / 166.0;
+            encode83(quantisedMaximumValue, 1, hash);
+        } else {
+            encode83(0, 1, hash);
+        }
+
+        double[] dc = factors[0];
+        encode83((toSrgb(dc[0]) << 16) + (toSrgb(dc[1]) << 8) + toSrgb(dc[2]), 4, hash);
+        for(int i = 1; i < factors.length; i++) {
+            double[] ac = factors[i];
+            encode83(quantise(ac[0], maximumValue) * 19 * 19 + quantise(ac[1], maximumValue) * 19 + quantise(ac[2], maximumValue), 2, hash);
+        }
+        return hash.toString();
+    }
+
+    private static int quantise(double value, double maximumValue) {
+        double normalised = value / maximumValue;
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(normalised)), normalised);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static float toLinear(int value) {
+        float v = value / 255f;
+        return v <= 0.04045f ? v / 12.92f : (float) Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int toSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308 ?
+                (int) (v * 12.92 * 255 + 0.5) :
+                (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(int value, int length, StringBuilder hash) {
+        for(int i = 1; i <= length; i++) {
+            int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            hash.append(BASE83.charAt(digit));
+        }
+    }
+}
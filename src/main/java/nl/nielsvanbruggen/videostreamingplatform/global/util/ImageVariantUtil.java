@@ -0,0 +1,47 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.util;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Images are stored at full size as jpg, with smaller widths next to it as <name>_w<width>.jpg.
+// When a WebP encoder is available every size also gets a .webp variant, <name>.webp for full size.
+public class ImageVariantUtil {
+    public static final int[] THUMBNAIL_WIDTHS = {150, 300};
+    public static final int[] SNAPSHOT_WIDTHS = {250, 500};
+    public static final String JPG = "jpg";
+    public static final String WEBP = "webp";
+
+    private ImageVariantUtil() {}
+
+    // A null width is the full size image.
+    public static Path getVariant(Path original, Integer width, String format) {
+        String name = original.getFileName().toString();
+        String baseName = name.substring(0, name.lastIndexOf('.'));
+        String suffix = width == null ? "" : "_w" + width;
+        return original.resolveSibling(baseName + suffix + "." + format);
+    }
+
+    // The variants to serve in order of preference, the smallest width that still covers the
+    // requested width first. Variants that were never generated have to be skipped by the caller.
+    public static List<Path> getCandidates(Path original, int[] widths, Integer requestedWidth, boolean acceptsWebp) {
+        Integer width = null;
+        if(requestedWidth != null) {
+            for(int candidate: widths) {
+                if(candidate >= requestedWidth) {
+                    width = candidate;
+                    break;
+                }
+            }
+        }
+
+        List<Path> candidates = new ArrayList<>();
+        if(width != null) {
+            if(acceptsWebp) candidates.add(getVariant(original, width, WEBP));
+            candidates.add(getVariant(original, width, JPG));
+        }
+        if(acceptsWebp) candidates.add(getVariant(original, null, WEBP));
+        candidates.add(original);
+        return candidates;
+    }
+}
@@ -11,6 +11,7 @@ public class MimeTypeUtil {
         return switch (extension) {
             case "mp4" -> "video/mp4";
             case "jpg", "jpeg" -> "image/jpeg";
+            case "webp" -> "image/webp";
             case "vtt" -> "text/vtt";
             default -> "application/octet-stream";
         };
@@ -38,7 +38,7 @@ public class InviteTokenController {
 
     @PostMapping
     public ResponseEntity<Void> createInviteToken(@RequestBody InviteTokenPostRequest inviteTokenPostRequest, Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
         inviteTokenService.createInviteToken(user, inviteTokenPostRequest);
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -3,7 +3,7 @@ package nl.nielsvanbruggen.videostreamingplatform.media.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTO;
-import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTOMapper;
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.ReviewDTO;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import nl.nielsvanbruggen.videostreamingplatform.media.service.MediaService;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
@@ -23,17 +23,23 @@ import java.util.List;
 public class MediaController {
     private final MediaService mediaService;
     private final UserService userService;
-    private final MediaDTOMapper mediaDTOMapper;
 
     @GetMapping("/{id}")
     public ResponseEntity<MediaGetResponse> getMedia(@PathVariable int id) {
         MediaGetResponse response = MediaGetResponse.builder()
-                .media(mediaDTOMapper.apply(mediaService.getMedia(id)))
+                .media(mediaService.getMediaDetails(id))
                 .build();
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/reviews")
+    public ResponseEntity<Page<ReviewDTO>> getReviews(@PathVariable long id,
+                                                      @RequestParam int pagenumber,
+                                                      @RequestParam int pagesize) {
+        return new ResponseEntity<>(mediaService.getReviews(id, pagenumber, pagesize), HttpStatus.OK);
+    }
+
     @GetMapping("/")
     public ResponseEntity<Page<MediaDTO>> getAllMedia(@RequestParam int pagenumber,
                                                       @RequestParam int pagesize,
@@ -85,7 +91,7 @@ public class MediaController {
                                                            @RequestParam int pagenumber,
                                                            @RequestParam int pagesize,
                                                            @RequestParam(required = false, defaultValue = "") String type) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         return new ResponseEntity<>(mediaService.getRecentWatched(user, pagenumber, pagesize, type), HttpStatus.OK);
     }
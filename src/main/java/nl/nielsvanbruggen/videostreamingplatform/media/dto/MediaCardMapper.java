@@ -0,0 +1,114 @@
+package nl.nielsvanbruggen.videostreamingplatform.media.dto;
+
+import lombok.RequiredArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.actor.dto.MediaActorView;
+import nl.nielsvanbruggen.videostreamingplatform.actor.model.Actor;
+import nl.nielsvanbruggen.videostreamingplatform.actor.repository.MediaActorRepository;
+import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenreRepository;
+import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenreView;
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
+import nl.nielsvanbruggen.videostreamingplatform.media.repository.RatingRepository;
+import nl.nielsvanbruggen.videostreamingplatform.media.repository.ReviewRepository;
+import nl.nielsvanbruggen.videostreamingplatform.video.dto.VideoDTOMapper;
+import nl.nielsvanbruggen.videostreamingplatform.video.model.Subtitle;
+import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
+import nl.nielsvanbruggen.videostreamingplatform.video.repository.SubtitleRepository;
+import nl.nielsvanbruggen.videostreamingplatform.video.repository.VideoRepository;
+import nl.nielsvanbruggen.videostreamingplatform.watched.repository.WatchedRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.*;
+
+// Maps a whole page of media to cards with one query per attribute instead of several per media.
+@Component
+@RequiredArgsConstructor
+public class MediaCardMapper {
+    private final MediaGenreRepository mediaGenreRepository;
+    private final MediaActorRepository mediaActorRepository;
+    private final VideoRepository videoRepository;
+    private final SubtitleRepository subtitleRepository;
+    private final RatingRepository ratingRepository;
+    private final ReviewRepository reviewRepository;
+    private final WatchedRepository watchedRepository;
+    private final VideoDTOMapper videoDTOMapper;
+    private final ReviewDTOMapper reviewDTOMapper;
+
+    public Page<MediaDTO> apply(Page<Media> page) {
+        return new PageImpl<>(apply(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    public List<MediaDTO> apply(List<Media> media) {
+        if(media.isEmpty()) return List.of();
+
+        List<Long> ids = media.stream()
+                .map(Media::getId)
+                .distinct()
+                .toList();
+
+        Map<Long, List<String>> genres = mediaGenreRepository.findAllMediaGenreViewsByMediaIdIn(ids).stream()
+                .collect(groupingBy(MediaGenreView::getMediaId, mapping(MediaGenreView::getGenre, toList())));
+        Map<Long, List<Actor>> actors = mediaActorRepository.findAllMediaActorViewsByMediaIdIn(ids).stream()
+                .collect(groupingBy(MediaActorView::getMediaId, mapping(this::toActor, toList())));
+        Map<Long, Long> videoCounts = videoRepository.countAllByMediaIdIn(ids).stream()
+                .collect(toMap(MediaCountView::getMediaId, MediaCountView::getCount));
+        Map<Long, Long> views = watchedRepository.totalUniqueViewsByMediaIdIn(ids).stream()
+                .collect(toMap(MediaCountView::getMediaId, MediaCountView::getCount));
+        Map<Long, List<RatingDTO>> ratings = ratingRepository.findAllRatingDTOsByMediaIdIn(ids).stream()
+                .collect(groupingBy(RatingDTO::mediaId));
+        Map<Long, List<ReviewDTO>> reviews = reviewRepository.findAllReviewViewsByMediaIdIn(ids).stream()
+                .collect(groupingBy(ReviewView::getMediaId, mapping(reviewDTOMapper::apply, toList())));
+
+        List<Video> firstVideos = videoRepository.findAllFirstByMediaIdIn(ids);
+        Map<Long, List<Subtitle>> subtitles = firstVideos.isEmpty() ? Map.of() :
+                subtitleRepository.findAllByVideoIn(firstVideos).stream()
+                        .collect(groupingBy(subtitle -> subtitle.getVideo().getId()));
+        Map<Long, Video> firstVideoByMedia = firstVideos.stream()
+                .collect(toMap(video -> video.getMedia().getId(), video -> video));
+
+        return media.stream()
+                .map(entry -> {
+                    List<RatingDTO> mediaRatings = ratings.getOrDefault(entry.getId(), List.of());
+                    Video firstVideo = firstVideoByMedia.get(entry.getId());
+
+                    return MediaDTO.builder()
+                            .id(entry.getId())
+                            .name(entry.getName())
+                            .thumbnail(entry.getThumbnail())
+                            .placeholder(entry.getPlaceholder())
+                            .trailer(entry.getTrailer())
+                            .plot(entry.getPlot())
+                            .type(entry.getType())
+                            .year(entry.getYear())
+                            .updatedAt(entry.getUpdatedAt())
+                            .createdAt(entry.getCreatedAt())
+                            .genres(genres.getOrDefault(entry.getId(), List.of()))
+                            .actors(actors.getOrDefault(entry.getId(), List.of()))
+                            .videoCount(videoCounts.getOrDefault(entry.getId(), 0L).intValue())
+                            .videos(firstVideo == null ? List.of() :
+                                    List.of(videoDTOMapper.apply(firstVideo,
+                                            subtitles.getOrDefault(firstVideo.getId(), List.of()))))
+                            .ratings(mediaRatings)
+                            .reviews(reviews.getOrDefault(entry.getId(), List.of()))
+                            .views(views.getOrDefault(entry.getId(), 0L).intValue())
+                            .avgRating(mediaRatings.stream()
+                                    .mapToDouble(RatingDTO::score)
+                                    .average()
+                                    .orElse(-1D))
+                            .build();
+                })
+                .toList();
+    }
+
+    private Actor toActor(MediaActorView view) {
+        return Actor.builder()
+                .id(view.getActorId())
+                .firstname(view.getFirstname())
+                .lastname(view.getLastname())
+                .build();
+    }
+}
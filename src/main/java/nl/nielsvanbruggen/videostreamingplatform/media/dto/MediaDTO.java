@@ -2,19 +2,23 @@ package nl.nielsvanbruggen.videostreamingplatform.media.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 import nl.nielsvanbruggen.videostreamingplatform.actor.model.Actor;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
 import nl.nielsvanbruggen.videostreamingplatform.video.dto.VideoDTO;
 
+import java.io.Serializable;
 import java.time.Instant;
 import java.util.List;
 
 @Data
 @Builder
-public class MediaDTO {
+@Jacksonized
+public class MediaDTO implements Serializable {
     private long id;
     private String name;
     private String thumbnail;
+    private String placeholder;
     private String trailer;
     private String plot;
     private Type type;
@@ -1,33 +1,52 @@
 package nl.nielsvanbruggen.videostreamingplatform.media.dto;
 
 import lombok.RequiredArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.actor.model.MediaActor;
 import nl.nielsvanbruggen.videostreamingplatform.genre.Genre;
 import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenre;
-import nl.nielsvanbruggen.videostreamingplatform.media.model.Rating;
-import nl.nielsvanbruggen.videostreamingplatform.video.dto.VideoDTOMapper;
-import nl.nielsvanbruggen.videostreamingplatform.watched.repository.WatchedRepository;
-import nl.nielsvanbruggen.videostreamingplatform.actor.dto.ActorDTOMapper;
-import nl.nielsvanbruggen.videostreamingplatform.actor.model.MediaActor;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
+import nl.nielsvanbruggen.videostreamingplatform.media.repository.MediaRepository;
+import nl.nielsvanbruggen.videostreamingplatform.media.repository.RatingRepository;
+import nl.nielsvanbruggen.videostreamingplatform.media.repository.ReviewRepository;
+import nl.nielsvanbruggen.videostreamingplatform.video.dto.VideoDTO;
+import nl.nielsvanbruggen.videostreamingplatform.video.dto.VideoDTOMapper;
+import nl.nielsvanbruggen.videostreamingplatform.video.model.Subtitle;
+import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
+import nl.nielsvanbruggen.videostreamingplatform.video.repository.VideoRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+// Builds the detail page from a fixed number of queries, independent of the number of
+// videos, ratings and reviews. Only the newest reviews are included, the rest are paged.
 @Component
 @RequiredArgsConstructor
 public class MediaDTOMapper implements Function<Media, MediaDTO> {
+    public static final int REVIEW_PAGE_SIZE = 10;
+    private final MediaRepository mediaRepository;
+    private final VideoRepository videoRepository;
+    private final RatingRepository ratingRepository;
+    private final ReviewRepository reviewRepository;
     private final VideoDTOMapper videoDTOMapper;
-    private final RatingDTOMapper ratingDTOMapper;
     private final ReviewDTOMapper reviewDTOMapper;
-    private final WatchedRepository watchedRepository;
 
     @Override
     public MediaDTO apply(Media media) {
+        List<VideoDTO> videos = getVideos(media.getId());
+        MediaStatsView stats = mediaRepository.findStatsById(media.getId());
+
         return MediaDTO.builder()
                 .id(media.getId())
                 .name(media.getName())
                 .thumbnail(media.getThumbnail())
+                .placeholder(media.getPlaceholder())
                 .trailer(media.getTrailer())
                 .plot(media.getPlot())
                 .type(media.getType())
@@ -41,21 +60,30 @@ public class MediaDTOMapper implements Function<Media, MediaDTO> {
                 .actors(media.getActors().stream()
                         .map(MediaActor::getActor)
                         .collect(Collectors.toList()))
-                .videoCount(media.getVideos().size())
-                .videos(media.getVideos().stream()
-                        .map(videoDTOMapper)
-                        .collect(Collectors.toList()))
-                .ratings(media.getRatings().stream()
-                        .map(ratingDTOMapper)
-                        .collect(Collectors.toList()))
-                .reviews(media.getReviews().stream()
-                        .map(reviewDTOMapper)
-                        .collect(Collectors.toList()))
-                .views(watchedRepository.totalUniqueViewsByMedia(media))
-                .avgRating(media.getRatings().stream()
-                        .mapToDouble(Rating::getScore)
-                        .average()
-                        .orElse(-1D))
+                .videoCount(videos.size())
+                .videos(videos)
+                .ratings(ratingRepository.findAllRatingDTOsByMediaIdIn(List.of(media.getId())))
+                .reviews(reviewRepository.findAllReviewViewsByMediaId(media.getId(), PageRequest.of(0, REVIEW_PAGE_SIZE))
+                        .map(reviewDTOMapper::apply)
+                        .getContent())
+                .views(stats.getViews() == null ? 0 : stats.getViews().intValue())
+                .avgRating(stats.getAvgRating() == null ? -1D : stats.getAvgRating())
                 .build();
     }
+
+    private List<VideoDTO> getVideos(long mediaId) {
+        Map<Long, Video> videos = new LinkedHashMap<>();
+        Map<Long, List<Subtitle>> subtitles = new HashMap<>();
+        videoRepository.findAllWithSubtitlesByMediaId(mediaId)
+                .forEach(row -> {
+                    Video video = (Video) row[0];
+                    videos.putIfAbsent(video.getId(), video);
+                    List<Subtitle> videoSubtitles = subtitles.computeIfAbsent(video.getId(), id -> new ArrayList<>());
+                    if(row[1] != null) videoSubtitles.add((Subtitle) row[1]);
+                });
+
+        return videos.values().stream()
+                .map(video -> videoDTOMapper.apply(video, subtitles.get(video.getId())))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,6 @@
+package nl.nielsvanbruggen.videostreamingplatform.media.dto;
+
+public interface MediaStatsView {
+    Double getAvgRating();
+    Long getViews();
+}
@@ -1,8 +1,10 @@
 package nl.nielsvanbruggen.videostreamingplatform.media.dto;
 
+import java.io.Serializable;
+
 public record RatingDTO(
         long mediaId,
         String username,
         double score
-) {
+) implements Serializable {
 }
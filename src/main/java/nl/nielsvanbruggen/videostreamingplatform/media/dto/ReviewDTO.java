@@ -1,5 +1,6 @@
 package nl.nielsvanbruggen.videostreamingplatform.media.dto;
 
+import java.io.Serializable;
 import java.time.Instant;
 
 public record ReviewDTO(
@@ -9,5 +10,5 @@ public record ReviewDTO(
         UserReviewDTO user,
         Instant createdAt,
         Instant updatedAt
-) {
+) implements Serializable {
 }
@@ -22,4 +22,15 @@ public class ReviewDTOMapper implements Function<Review, ReviewDTO> {
                 review.getUpdatedAt()
         );
     }
+
+    public ReviewDTO apply(ReviewView review) {
+        return new ReviewDTO(
+                review.getId(),
+                review.getTitle(),
+                review.getComment(),
+                new UserReviewDTO(review.getUsername(), review.getRole()),
+                review.getCreatedAt(),
+                review.getUpdatedAt()
+        );
+    }
 }
@@ -0,0 +1,16 @@
+package nl.nielsvanbruggen.videostreamingplatform.media.dto;
+
+import nl.nielsvanbruggen.videostreamingplatform.user.model.Role;
+
+import java.time.Instant;
+
+public interface ReviewView {
+    Long getId();
+    Long getMediaId();
+    String getTitle();
+    String getComment();
+    String getUsername();
+    Role getRole();
+    Instant getCreatedAt();
+    Instant getUpdatedAt();
+}
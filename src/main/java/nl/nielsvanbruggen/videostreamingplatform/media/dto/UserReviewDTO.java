@@ -2,9 +2,11 @@ package nl.nielsvanbruggen.videostreamingplatform.media.dto;
 
 import nl.nielsvanbruggen.videostreamingplatform.user.model.Role;
 
+import java.io.Serializable;
+
 public record UserReviewDTO(
         String username,
         Role role
-) {
+) implements Serializable {
 
 }
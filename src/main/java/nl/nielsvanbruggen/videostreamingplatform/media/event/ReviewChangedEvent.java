@@ -0,0 +1,9 @@
+package nl.nielsvanbruggen.videostreamingplatform.media.event;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+
+public record ReviewChangedEvent(
+        long mediaId,
+        Type type
+) {
+}
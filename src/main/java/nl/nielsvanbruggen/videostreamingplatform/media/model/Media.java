@@ -8,18 +8,29 @@ import lombok.NoArgsConstructor;
 import nl.nielsvanbruggen.videostreamingplatform.actor.model.MediaActor;
 import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenre;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
-import org.hibernate.annotations.Fetch;
-import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@NamedEntityGraph(name = Media.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "genres", subgraph = "genres"),
+                @NamedAttributeNode(value = "actors", subgraph = "actors")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "genres", attributeNodes = @NamedAttributeNode("genre")),
+                @NamedSubgraph(name = "actors", attributeNodes = @NamedAttributeNode("actor"))
+        })
 public class Media {
+    public static final String DETAIL_GRAPH = "Media.detail";
+
     @Id
     @GeneratedValue
     private long id;
@@ -29,6 +40,8 @@ public class Media {
     @Column(name = "updated_at")
     private Instant updatedAt;
     private String thumbnail;
+    // BlurHash of the thumbnail.
+    private String placeholder;
     private String trailer;
     @Column(columnDefinition = "TEXT")
     private String plot;
@@ -37,10 +50,12 @@ public class Media {
     private Type type;
     @OneToMany(mappedBy = "media", fetch = FetchType.LAZY)
     private List<Video> videos;
-    @OneToMany(mappedBy = "media", fetch = FetchType.EAGER)
-    private List<MediaGenre> genres;
-    @OneToMany(mappedBy = "media", fetch = FetchType.EAGER)
-    private List<MediaActor> actors;
+    @BatchSize(size = 50)
+    @OneToMany(mappedBy = "media", fetch = FetchType.LAZY)
+    private Set<MediaGenre> genres;
+    @BatchSize(size = 50)
+    @OneToMany(mappedBy = "media", fetch = FetchType.LAZY)
+    private Set<MediaActor> actors;
     @OneToMany(mappedBy = "media", fetch = FetchType.LAZY)
     private List<Review> reviews;
     @OneToMany(mappedBy = "media", fetch = FetchType.LAZY)
@@ -1,10 +1,11 @@
 package nl.nielsvanbruggen.videostreamingplatform.media.repository;
 
-import nl.nielsvanbruggen.videostreamingplatform.genre.Genre;
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaStatsView;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -15,31 +16,115 @@ import java.util.Optional;
 public interface MediaRepository extends JpaRepository<Media, Long> {
     Optional<Media> findByName(String name);
 
+    @EntityGraph(Media.DETAIL_GRAPH)
+    Optional<Media> findDetailById(long id);
+
+    @Query("SELECT (SELECT AVG(r.score) FROM Rating r WHERE r.media = m) AS avgRating, " +
+            "(SELECT COUNT(DISTINCT w.user.id) FROM Watched w WHERE w.video.media = m) AS views " +
+            "FROM Media m " +
+            "WHERE m.id = :id")
+    MediaStatsView findStatsById(long id);
+
+    @Query("SELECT m " +
+            "FROM Media m " +
+            "WHERE m.type LIKE '%'|| :type || '%' " +
+            "ORDER BY m.updatedAt DESC")
+    Page<Media> findAllByType(String type, Pageable pageable);
+
+    // The ids of a genre filter are bound as a single array, however many media it matches.
+    @Query(value = "SELECT m.* " +
+            "FROM media m " +
+            "WHERE m.type LIKE '%'|| :type || '%' " +
+            "AND m.id = ANY(:ids) " +
+            "ORDER BY m.updated_at DESC",
+            countQuery = "SELECT COUNT(*) " +
+            "FROM media m " +
+            "WHERE m.type LIKE '%'|| :type || '%' " +
+            "AND m.id = ANY(:ids)",
+            nativeQuery = true)
+    Page<Media> findAllByIdInAndType(Long[] ids, String type, Pageable pageable);
+
     @Query("SELECT m " +
             "FROM Media m " +
-            "INNER JOIN MediaGenre g ON m = g.media " +
-            "INNER JOIN MediaActor ma ON m = ma.media " +
-            "INNER JOIN Actor a ON ma.actor = a " +
             "WHERE m.type LIKE '%'|| :type || '%' " +
-            "AND g.genre IN :genres " +
             "AND (" +
             "   LOWER(m.name) LIKE '%'|| LOWER(:search) || '%' " +
-            "   OR LOWER(g.genre.name) LIKE '%'|| LOWER(:search) || '%' " +
-            "   OR LOWER(CONCAT(a.firstname, ' ', a.lastname)) LIKE '%'|| LOWER(:search) || '%' " +
+            "   OR EXISTS (" +
+            "       SELECT g FROM MediaGenre g " +
+            "       WHERE g.media = m " +
+            "       AND LOWER(g.genre.name) LIKE '%'|| LOWER(:search) || '%') " +
+            "   OR EXISTS (" +
+            "       SELECT ma FROM MediaActor ma " +
+            "       INNER JOIN Actor a ON ma.actor = a " +
+            "       WHERE ma.media = m " +
+            "       AND LOWER(CONCAT(a.firstname, ' ', a.lastname)) LIKE '%'|| LOWER(:search) || '%') " +
             ") " +
-            "GROUP BY m " +
             "ORDER BY m.updatedAt DESC")
-    Page<Media> findAllByPartialNameTypeAndGenres(String search, String type, List<Genre> genres, Pageable pageable);
+    Page<Media> findAllByPartialNameAndType(String search, String type, Pageable pageable);
+
+    @Query(value = "SELECT m.* " +
+            "FROM media m " +
+            "WHERE m.type LIKE '%'|| :type || '%' " +
+            "AND m.id = ANY(:ids) " +
+            "AND (" +
+            "   LOWER(m.name) LIKE '%'|| LOWER(:search) || '%' " +
+            "   OR EXISTS (" +
+            "       SELECT 1 FROM media_genre g " +
+            "       WHERE g.media_id = m.id " +
+            "       AND LOWER(g.genre_name) LIKE '%'|| LOWER(:search) || '%') " +
+            "   OR EXISTS (" +
+            "       SELECT 1 FROM media_actor ma " +
+            "       INNER JOIN actor a ON ma.actor_id = a.id " +
+            "       WHERE ma.media_id = m.id " +
+            "       AND LOWER(CONCAT(a.firstname, ' ', a.lastname)) LIKE '%'|| LOWER(:search) || '%') " +
+            ") " +
+            "ORDER BY m.updated_at DESC",
+            countQuery = "SELECT COUNT(*) " +
+            "FROM media m " +
+            "WHERE m.type LIKE '%'|| :type || '%' " +
+            "AND m.id = ANY(:ids) " +
+            "AND (" +
+            "   LOWER(m.name) LIKE '%'|| LOWER(:search) || '%' " +
+            "   OR EXISTS (" +
+            "       SELECT 1 FROM media_genre g " +
+            "       WHERE g.media_id = m.id " +
+            "       AND LOWER(g.genre_name) LIKE '%'|| LOWER(:search) || '%') " +
+            "   OR EXISTS (" +
+            "       SELECT 1 FROM media_actor ma " +
+            "       INNER JOIN actor a ON ma.actor_id = a.id " +
+            "       WHERE ma.media_id = m.id " +
+            "       AND LOWER(CONCAT(a.firstname, ' ', a.lastname)) LIKE '%'|| LOWER(:search) || '%') " +
+            ")",
+            nativeQuery = true)
+    Page<Media> findAllByIdInAndPartialNameAndType(Long[] ids, String search, String type, Pageable pageable);
 
     @Query("SELECT m.id, m.name " +
             "FROM Media m " +
-            "INNER JOIN MediaGenre g ON m = g.media " +
             "WHERE m.type LIKE '%'|| :type || '%' " +
-            "AND g.genre IN :genres " +
             "AND LOWER(m.name) LIKE LOWER(:search) || '%' " +
-            "GROUP BY m " +
             "ORDER BY m.name ASC")
-    Page<Media> findAutoCompletion(String search, String type, List<Genre> genres, Pageable pageable);
+    Page<Media> findAutoCompletion(String search, String type, Pageable pageable);
+
+    // Only pages the ids, the names of a page are read with findAutoCompletionByIdIn.
+    @Query(value = "SELECT m.id " +
+            "FROM media m " +
+            "WHERE m.type LIKE '%'|| :type || '%' " +
+            "AND m.id = ANY(:ids) " +
+            "AND LOWER(m.name) LIKE LOWER(:search) || '%' " +
+            "ORDER BY m.name ASC",
+            countQuery = "SELECT COUNT(*) " +
+            "FROM media m " +
+            "WHERE m.type LIKE '%'|| :type || '%' " +
+            "AND m.id = ANY(:ids) " +
+            "AND LOWER(m.name) LIKE LOWER(:search) || '%'",
+            nativeQuery = true)
+    Page<Long> findAutoCompletionIdsByIdIn(Long[] ids, String search, String type, Pageable pageable);
+
+    @Query("SELECT m.id, m.name " +
+            "FROM Media m " +
+            "WHERE m.id IN :ids " +
+            "ORDER BY m.name ASC")
+    List<Media> findAutoCompletionByIdIn(List<Long> ids);
 
     @Query("SELECT m " +
             "FROM Media m " +
@@ -93,13 +178,4 @@ public interface MediaRepository extends JpaRepository<Media, Long> {
             "AND m.updatedAt > :threshold " +
             "ORDER BY m.updatedAt DESC")
     Page<Media> findAllRecentUploadedByType(String type, Instant threshold, Pageable pageable);
-
-    @Query("SELECT m " +
-            "FROM Media m " +
-            "INNER JOIN Video v ON m = v.media " +
-            "LEFT JOIN Watched w ON v = w.video " +
-            "AND w.user = :user " +
-            "WHERE w IS NULL " +
-            "GROUP BY m")
-    List<Media> findAllNotWatchedByUser(User user);
 }
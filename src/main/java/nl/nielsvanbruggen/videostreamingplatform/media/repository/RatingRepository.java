@@ -1,5 +1,6 @@
 package nl.nielsvanbruggen.videostreamingplatform.media.repository;
 
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.RatingDTO;
 import nl.nielsvanbruggen.videostreamingplatform.media.id.RatingId;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Rating;
@@ -7,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +21,10 @@ public interface RatingRepository extends JpaRepository<Rating, RatingId> {
             "WHERE r.media = :media " +
             "GROUP BY r.media")
     Optional<Double> averageScoreByMedia(@Param("media") Media media);
+
+    @Query("SELECT new nl.nielsvanbruggen.videostreamingplatform.media.dto.RatingDTO(r.media.id, u.username, r.score) " +
+            "FROM Rating r " +
+            "INNER JOIN r.user u " +
+            "WHERE r.media.id IN :mediaIds")
+    List<RatingDTO> findAllRatingDTOsByMediaIdIn(Collection<Long> mediaIds);
 }
@@ -1,12 +1,35 @@
 package nl.nielsvanbruggen.videostreamingplatform.media.repository;
 
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.ReviewView;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Review;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findAllByMedia(Media media);
     List<Review> deleteByMedia(Media media);
+
+    @Query("SELECT r.id AS id, r.media.id AS mediaId, r.title AS title, r.comment AS comment, " +
+            "u.username AS username, u.role AS role, r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+            "FROM Review r " +
+            "INNER JOIN r.user u " +
+            "WHERE r.media.id IN :mediaIds")
+    List<ReviewView> findAllReviewViewsByMediaIdIn(Collection<Long> mediaIds);
+
+    @Query(value = "SELECT r.id AS id, r.media.id AS mediaId, r.title AS title, r.comment AS comment, " +
+            "u.username AS username, u.role AS role, r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+            "FROM Review r " +
+            "INNER JOIN r.user u " +
+            "WHERE r.media.id = :mediaId " +
+            "ORDER BY r.createdAt DESC",
+            countQuery = "SELECT COUNT(r) " +
+                    "FROM Review r " +
+                    "WHERE r.media.id = :mediaId")
+    Page<ReviewView> findAllReviewViewsByMediaId(long mediaId, Pageable pageable);
 }
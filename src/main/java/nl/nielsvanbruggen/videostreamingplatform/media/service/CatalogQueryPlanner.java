@@ -0,0 +1,49 @@
+package nl.nielsvanbruggen.videostreamingplatform.media.service;
+
+import lombok.RequiredArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
+import nl.nielsvanbruggen.videostreamingplatform.media.repository.MediaRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Picks the cheapest catalog query for a filter: predicates that can't narrow the result
+// (no genres, no search) are left out, and genre filters are resolved against the GenreIndex.
+@Service
+@RequiredArgsConstructor
+public class CatalogQueryPlanner {
+    private final MediaRepository mediaRepository;
+    private final GenreIndex genreIndex;
+
+    public Page<Media> findAll(String type, List<String> genres, String search, Pageable pageable) {
+        if(genres.isEmpty()) {
+            return search.isEmpty() ?
+                    mediaRepository.findAllByType(type, pageable) :
+                    mediaRepository.findAllByPartialNameAndType(search, type, pageable);
+        }
+
+        Long[] ids = genreIndex.findMediaIdsByAnyGenre(genres);
+        if(ids.length == 0) return Page.empty(pageable);
+
+        return search.isEmpty() ?
+                mediaRepository.findAllByIdInAndType(ids, type, pageable) :
+                mediaRepository.findAllByIdInAndPartialNameAndType(ids, search, type, pageable);
+    }
+
+    public Page<Media> findAutoCompletion(String type, List<String> genres, String search, Pageable pageable) {
+        if(genres.isEmpty()) {
+            return mediaRepository.findAutoCompletion(search, type, pageable);
+        }
+
+        Long[] ids = genreIndex.findMediaIdsByAnyGenre(genres);
+        if(ids.length == 0) return Page.empty(pageable);
+
+        Page<Long> page = mediaRepository.findAutoCompletionIdsByIdIn(ids, search, type, pageable);
+        if(page.isEmpty()) return Page.empty(pageable);
+
+        return new PageImpl<>(mediaRepository.findAutoCompletionByIdIn(page.getContent()), pageable, page.getTotalElements());
+    }
+}
@@ -0,0 +1,94 @@
+package nl.nielsvanbruggen.videostreamingplatform.media.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenreRepository;
+import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenreView;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GenreIndex {
+    private final MediaGenreRepository mediaGenreRepository;
+    // Bitmap of media ids per genre name.
+    private volatile Map<String, BitSet> mediaByGenre = Map.of();
+
+    @PostConstruct
+    public void initGenreIndex() {
+        rebuild();
+    }
+
+    // Periodic rebuild picks up changes made by other nodes or directly in the database.
+    @Scheduled(cron = "0 0/15 * 1/1 * *")
+    public synchronized void rebuild() {
+        Map<String, BitSet> index = new HashMap<>();
+        for(MediaGenreView view: mediaGenreRepository.findAllMediaGenreViews()) {
+            index.computeIfAbsent(view.getGenre(), genre -> new BitSet())
+                    .set(Math.toIntExact(view.getMediaId()));
+        }
+        mediaByGenre = index;
+        log.debug("Rebuilt genre index with {} genres.", index.size());
+    }
+
+    public void put(long mediaId, Collection<String> genres) {
+        List<String> copy = List.copyOf(genres);
+        afterCommit(() -> apply(mediaId, copy));
+    }
+
+    public void remove(long mediaId) {
+        afterCommit(() -> apply(mediaId, List.of()));
+    }
+
+    public Long[] findMediaIdsByAnyGenre(Collection<String> genres) {
+        Map<String, BitSet> index = mediaByGenre;
+        BitSet result = new BitSet();
+        genres.forEach(genre -> {
+            BitSet media = index.get(genre);
+            if(media != null) result.or(media);
+        });
+
+        return result.stream()
+                .mapToObj(Long::valueOf)
+                .toArray(Long[]::new);
+    }
+
+    // A rolled back change never reaches the index.
+    private void afterCommit(Runnable change) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private synchronized void apply(long mediaId, Collection<String> genres) {
+        Map<String, BitSet> index = copyWithout(mediaId);
+        genres.forEach(genre -> index.computeIfAbsent(genre, key -> new BitSet())
+                .set(Math.toIntExact(mediaId)));
+        mediaByGenre = index;
+    }
+
+    // Bitmaps are never mutated after publication, so readers don't need to lock.
+    private Map<String, BitSet> copyWithout(long mediaId) {
+        Map<String, BitSet> index = new HashMap<>();
+        mediaByGenre.forEach((genre, media) -> {
+            BitSet copy = (BitSet) media.clone();
+            copy.clear(Math.toIntExact(mediaId));
+            if(!copy.isEmpty()) index.put(genre, copy);
+        });
+        return index;
+    }
+}
@@ -4,9 +4,16 @@ import com.sun.jdi.InternalException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.CacheNames;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.MediaCacheKey;
 import nl.nielsvanbruggen.videostreamingplatform.global.exception.ResourceNotFoundException;
 import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTO;
-import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTOSimplifiedMapper;
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.ReviewDTO;
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.ReviewDTOMapper;
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaCardMapper;
+import nl.nielsvanbruggen.videostreamingplatform.media.event.MediaChangedEvent;
+import nl.nielsvanbruggen.videostreamingplatform.media.event.RatingChangedEvent;
+import nl.nielsvanbruggen.videostreamingplatform.media.event.ReviewChangedEvent;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.*;
 import nl.nielsvanbruggen.videostreamingplatform.user.service.UserService;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
@@ -14,6 +21,7 @@ import nl.nielsvanbruggen.videostreamingplatform.video.repository.SubtitleReposi
 import nl.nielsvanbruggen.videostreamingplatform.video.repository.VideoRepository;
 import nl.nielsvanbruggen.videostreamingplatform.watched.model.Watched;
 import nl.nielsvanbruggen.videostreamingplatform.watched.repository.WatchedRepository;
+import nl.nielsvanbruggen.videostreamingplatform.watched.service.ContinueWatchingIndex;
 import nl.nielsvanbruggen.videostreamingplatform.actor.model.Actor;
 import nl.nielsvanbruggen.videostreamingplatform.actor.model.MediaActor;
 import nl.nielsvanbruggen.videostreamingplatform.actor.repository.ActorRepository;
@@ -30,13 +38,11 @@ import nl.nielsvanbruggen.videostreamingplatform.media.repository.*;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.Role;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
 import org.apache.commons.io.FilenameUtils;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
@@ -44,11 +50,12 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-@EnableCaching
 @Slf4j
 public class MediaService {
     private final VideoRepository videoRepository;
@@ -61,86 +68,77 @@ public class MediaService {
     private final SubtitleRepository subtitleRepository;
     private final MediaGenreRepository mediaGenreRepository;
     private final MediaActorRepository mediaActorRepository;
-    private final MediaDTOSimplifiedMapper mediaDTOSimplifiedMapper;
+    private final MediaCardMapper mediaCardMapper;
+    private final MediaDTOMapper mediaDTOMapper;
+    private final ReviewDTOMapper reviewDTOMapper;
+    private final CatalogQueryPlanner catalogQueryPlanner;
+    private final ContinueWatchingIndex continueWatchingIndex;
+    private final GenreIndex genreIndex;
+    private final ApplicationEventPublisher eventPublisher;
     private final UserService userService;
     private final VideoService videoService;
     private final ImageService imageService;
 
-    @Scheduled(cron = "0 0/15 * 1/1 * *")
-    @Caching(evict = {
-            @CacheEvict(value = "allMedia", allEntries = true),
-            @CacheEvict(value = "recentUploadedMedia", allEntries = true),
-            @CacheEvict(value = "bestRatedMedia", allEntries = true),
-            @CacheEvict(value = "mostWatchedMedia", allEntries = true),
-            @CacheEvict(value = "lastWatchedMedia", allEntries = true)
-    })
-    public void deleteAllMediaCache() {
-        log.debug("Cleared all media cache.");
-    }
-
     public Media getMedia(long id) {
         return mediaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Id does not exist."));
     }
 
-    @Cacheable(value = "allMedia")
+    @Cacheable(value = CacheNames.MEDIA_DETAIL, key = "#id")
+    public MediaDTO getMediaDetails(long id) {
+        return mediaDTOMapper.apply(mediaRepository.findDetailById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Id does not exist.")));
+    }
+
+    public Page<ReviewDTO> getReviews(long id, int pageNumber, int pageSize) {
+        return reviewRepository.findAllReviewViewsByMediaId(id, PageRequest.of(pageNumber, pageSize))
+                .map(reviewDTOMapper::apply);
+    }
+
+    @Cacheable(value = CacheNames.ALL_MEDIA, key = MediaCacheKey.FILTER)
     public Page<MediaDTO> getAllMedia(int pageNumber, int pageSize, String type, List<String> genres, String search) {
-        List<Genre> tmpGenres = genres.isEmpty() ?
-                genreRepository.findAll() :
-                genres.stream()
-                        .map(Genre::new)
-                        .toList();
-
-        return mediaRepository.findAllByPartialNameTypeAndGenres(search, type, tmpGenres, PageRequest.of(pageNumber, pageSize))
-                .map(mediaDTOSimplifiedMapper);
+        return mediaCardMapper.apply(catalogQueryPlanner.findAll(type, genres, search, PageRequest.of(pageNumber, pageSize)));
     }
 
     public Page<Media> getAutocompletion(int pageNumber, int pageSize, String type, List<String> genres, String search) {
         if(search.isEmpty()) return Page.empty(PageRequest.of(pageNumber, pageSize));
 
-        List<Genre> tmpGenres = genres.isEmpty() ?
-                genreRepository.findAll() :
-                genres.stream()
-                        .map(Genre::new)
-                        .toList();
-        return mediaRepository.findAutoCompletion(search, type, tmpGenres, PageRequest.of(pageNumber, pageSize));
+        return catalogQueryPlanner.findAutoCompletion(type, genres, search, PageRequest.of(pageNumber, pageSize));
     }
 
-    @Cacheable(value = "recentUploadedMedia")
+    @Cacheable(value = CacheNames.RECENT_UPLOADED_MEDIA, key = MediaCacheKey.PAGE)
     public Page<MediaDTO> getRecentUploaded(int pageNumber, int pageSize, String type) {
-        return mediaRepository.findAllRecentUploadedByType(type, Instant.now().minus(7, ChronoUnit.DAYS), PageRequest.of(pageNumber, pageSize))
-                .map(mediaDTOSimplifiedMapper);
+        return mediaCardMapper.apply(mediaRepository.findAllRecentUploadedByType(type, Instant.now().minus(7, ChronoUnit.DAYS), PageRequest.of(pageNumber, pageSize)));
     }
 
-    @Cacheable(value = "bestRatedMedia")
+    @Cacheable(value = CacheNames.BEST_RATED_MEDIA, key = MediaCacheKey.PAGE)
     public Page<MediaDTO> getBestRated(int pageNumber, int pageSize, String type) {
-        return mediaRepository.findAllBestRatedByType(type, PageRequest.of(pageNumber, pageSize))
-                .map(mediaDTOSimplifiedMapper);
+        return mediaCardMapper.apply(mediaRepository.findAllBestRatedByType(type, PageRequest.of(pageNumber, pageSize)));
     }
 
-    @Cacheable(value = "mostWatchedMedia")
+    @Cacheable(value = CacheNames.MOST_WATCHED_MEDIA, key = MediaCacheKey.PAGE)
     public Page<MediaDTO> getMostWatched(int pageNumber, int pageSize, String type) {
-        return mediaRepository.findAllMostWatchedByType(type, PageRequest.of(pageNumber, pageSize))
-                .map(mediaDTOSimplifiedMapper);
+        return mediaCardMapper.apply(mediaRepository.findAllMostWatchedByType(type, PageRequest.of(pageNumber, pageSize)));
     }
 
-    @Cacheable(value = "lastWatchedMedia")
+    @Cacheable(value = CacheNames.LAST_WATCHED_MEDIA, key = MediaCacheKey.PAGE)
     public Page<MediaDTO> getLastWatched(int pageNumber, int pageSize, String type) {
-         return mediaRepository.findAllLastWatchedByType(type, PageRequest.of(pageNumber, pageSize))
-                 .map(mediaDTOSimplifiedMapper);
+         return mediaCardMapper.apply(mediaRepository.findAllLastWatchedByType(type, PageRequest.of(pageNumber, pageSize)));
     }
 
 
     public Page<MediaDTO> getRecentWatched(User user, int pageNumber, int pageSize, String type) {
-        return watchedRepository.findAllWatchedByUserAndGroupedByMediaId(user, type, PageRequest.of(pageNumber, pageSize))
-                .map(mediaDTOSimplifiedMapper);
+        PageRequest pageRequest = PageRequest.of(pageNumber, pageSize);
+        return continueWatchingIndex.getInProgress(user.getId(), type, (int) pageRequest.getOffset(), pageSize)
+                .map(result -> (Page<MediaDTO>) new PageImpl<>(getMediaCards(result.mediaIds()), pageRequest, result.total()))
+                .orElseGet(() -> mediaCardMapper.apply(watchedRepository.findAllWatchedByUserAndGroupedByMediaId(user, type, pageRequest)));
     }
 
     public void postRating(Long id, RatingPostRequest request, Authentication authentication) {
         Media media = mediaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Id does not exist."));
 
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         Rating rating = Rating.builder()
                 .media(media)
@@ -149,6 +147,7 @@ public class MediaService {
                 .build();
 
         ratingRepository.save(rating);
+        eventPublisher.publishEvent(new RatingChangedEvent(media.getId(), media.getType()));
     }
 
     public void postReview(Long id, ReviewPostRequest request, Authentication authentication) {
@@ -160,7 +159,7 @@ public class MediaService {
         Media media = mediaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Id does not exist."));
 
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         Review review = Review.builder()
                 .media(media)
@@ -172,6 +171,7 @@ public class MediaService {
                 .build();
 
         reviewRepository.save(review);
+        eventPublisher.publishEvent(new ReviewChangedEvent(media.getId(), media.getType()));
     }
 
     public void patchReview(Long id, ReviewPatchRequest request, Authentication authentication) {
@@ -183,12 +183,12 @@ public class MediaService {
         Media media = mediaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Id does not exist."));
 
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         Review review = reviewRepository.findById(request.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Review does not exist"));
 
-        if(!user.equals(review.getUser())) {
+        if(user.getId() != review.getUser().getId()) {
             throw new IllegalArgumentException("Insufficient permission");
         }
         review.setUpdatedAt(Instant.now());
@@ -196,30 +196,29 @@ public class MediaService {
         review.setComment(request.getComment());
 
         reviewRepository.save(review);
+        eventPublisher.publishEvent(new ReviewChangedEvent(review.getMedia().getId(), review.getMedia().getType()));
     }
 
     public void deleteReview(Long id, ReviewDeleteRequest request, Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         Review review = reviewRepository.findById(request.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Review does not exist"));
 
         if(!user.getAuthorities().contains(new SimpleGrantedAuthority(Role.ADMIN.name())) &&
-                !review.getUser().equals(user)) {
+                review.getUser().getId() != user.getId()) {
             throw new IllegalArgumentException("Insufficient permission");
         }
 
         reviewRepository.delete(review);
+        eventPublisher.publishEvent(new ReviewChangedEvent(review.getMedia().getId(), review.getMedia().getType()));
     }
 
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "allMedia", allEntries = true),
-            @CacheEvict(value = "recentUploadedMedia", allEntries = true)
-    })
     public void patchMedia(Long id, MediaPatchRequest request) {
         Media media = mediaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Id does not exist."));
+        Type previousType = media.getType();
 
         if(request.getTrailer() != null) media.setTrailer(request.getTrailer());
         if(request.getPlot() != null) media.setPlot(request.getPlot());
@@ -236,6 +235,7 @@ public class MediaService {
 
             mediaGenreRepository.deleteByMedia(media);
             mediaGenreRepository.saveAll(mediaGenres);
+            genreIndex.put(media.getId(), request.getGenres());
         }
         if(request.getActors() != null) {
             List<Actor> actors = actorRepository.findAllById(request.getActors());
@@ -252,7 +252,7 @@ public class MediaService {
         if(request.getThumbnail() != null) {
             String imageName = media.getName() + "_" + media.getYear() + ".jpg";
             try {
-                imageService.saveImage(request.getThumbnail().getInputStream(), imageName);
+                media.setPlaceholder(imageService.saveImage(request.getThumbnail().getInputStream(), imageName));
             } catch (IOException ex) {
                 throw new InternalException("Saving thumbnail went wrong.");
             }
@@ -277,13 +277,14 @@ public class MediaService {
 
         media.setUpdatedAt(Instant.now());
         mediaRepository.save(media);
+
+        eventPublisher.publishEvent(new MediaChangedEvent(media.getId(), media.getType()));
+        if(previousType != media.getType()) {
+            eventPublisher.publishEvent(new MediaChangedEvent(media.getId(), previousType));
+        }
     }
 
 
-    @Caching(evict = {
-            @CacheEvict(value = "allMedia", allEntries = true),
-            @CacheEvict(value = "recentUploadedMedia", allEntries = true)
-    })
     public void postMedia(MediaPostRequest request) {
         if(request.getThumbnail() == null) {
             throw new IllegalArgumentException("No thumbnail provided.");
@@ -307,8 +308,9 @@ public class MediaService {
         }
 
         String imageName = request.getName() + "_" + request.getYear() + ".jpg";
+        String placeholder;
         try {
-            imageService.saveImage(request.getThumbnail().getInputStream(), imageName);
+            placeholder = imageService.saveImage(request.getThumbnail().getInputStream(), imageName);
         } catch (IOException ex) {
             throw new InternalException("Saving thumbnail went wrong.");
         }
@@ -317,6 +319,7 @@ public class MediaService {
                 .name(request.getName())
                 .trailer(request.getTrailer())
                 .thumbnail(imageName)
+                .placeholder(placeholder)
                 .plot(request.getPlot())
                 .type(request.getType())
                 .year(request.getYear())
@@ -332,14 +335,12 @@ public class MediaService {
           throw new InternalException(ex.getMessage());
         }
         genres.forEach(genre -> mediaGenreRepository.save(new MediaGenre(media, genre)));
+        genreIndex.put(media.getId(), request.getGenres());
         actors.forEach(actor -> mediaActorRepository.save(new MediaActor(media, actor)));
+        eventPublisher.publishEvent(new MediaChangedEvent(media.getId(), media.getType()));
     }
 
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "allMedia", allEntries = true),
-            @CacheEvict(value = "recentUploadedMedia", allEntries = true)
-    })
     public void deleteMedia(Long id) {
         Media media = mediaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Id does not exist."));
@@ -355,5 +356,22 @@ public class MediaService {
 
         videoRepository.deleteAll(videos);
         mediaRepository.delete(media);
+        genreIndex.remove(media.getId());
+        eventPublisher.publishEvent(new MediaChangedEvent(media.getId(), media.getType()));
+    }
+
+    private List<MediaDTO> getMediaCards(long[] mediaIds) {
+        if(mediaIds.length == 0) return List.of();
+
+        List<Long> ids = Arrays.stream(mediaIds)
+                .boxed()
+                .toList();
+        Map<Long, Media> media = mediaRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Media::getId, Function.identity()));
+
+        return mediaCardMapper.apply(ids.stream()
+                .map(media::get)
+                .filter(Objects::nonNull)
+                .toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package nl.nielsvanbruggen.videostreamingplatform.media.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.config.EnvironmentProperties;
+import nl.nielsvanbruggen.videostreamingplatform.global.service.ImageService;
+import nl.nielsvanbruggen.videostreamingplatform.global.util.ImageVariantUtil;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Computes the placeholders of images stored before placeholders existed. Rows are read in
+// batches by id, images of a batch are decoded in parallel and the batch is written at once.
+// Images that can't be read keep no placeholder and are skipped again on the next startup.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlaceholderBackfill {
+    private static final int BATCH_SIZE = 100;
+    private static final String SELECT_MEDIA = "SELECT id, thumbnail FROM media " +
+            "WHERE placeholder IS NULL AND thumbnail IS NOT NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_MEDIA = "UPDATE media SET placeholder = ? WHERE id = ?";
+    private static final String SELECT_VIDEOS = "SELECT id, snapshot FROM video " +
+            "WHERE placeholder IS NULL AND snapshot IS NOT NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_VIDEOS = "UPDATE video SET placeholder = ? WHERE id = ?";
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageService imageService;
+    private final EnvironmentProperties env;
+    private final ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initBackfill() {
+        CompletableFuture.runAsync(() -> {
+                    backfill(SELECT_MEDIA, UPDATE_MEDIA, env.getThumbnail().get("root"), ImageVariantUtil.THUMBNAIL_WIDTHS);
+                    backfill(SELECT_VIDEOS, UPDATE_VIDEOS, env.getSnapshot().get("root"), ImageVariantUtil.SNAPSHOT_WIDTHS);
+                })
+                .exceptionally(ex -> {
+                    log.error("Placeholder backfill failed.", ex);
+                    return null;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    private void backfill(String select, String update, String root, int[] widths) {
+        long lastId = 0;
+        int total = 0;
+        while(true) {
+            List<Image> images = jdbcTemplate.query(select,
+                    (rs, rowNum) -> new Image(rs.getLong(1), Path.of(root + rs.getString(2))),
+                    lastId, BATCH_SIZE);
+            if(images.isEmpty()) break;
+            lastId = images.get(images.size() - 1).id();
+
+            List<CompletableFuture<Object[]>> placeholders = images.stream()
+                    .map(image -> CompletableFuture.supplyAsync(() -> createPlaceholder(image, widths), executorService))
+                    .toList();
+            List<Object[]> args = placeholders.stream()
+                    .map(CompletableFuture::join)
+                    .filter(Objects::nonNull)
+                    .toList();
+            jdbcTemplate.batchUpdate(update, args);
+            total += args.size();
+        }
+        if(total > 0) log.info("Backfilled {} placeholders in {}.", total, root);
+    }
+
+    // The smallest variant decodes fastest, the placeholder doesn't need more detail.
+    private Object[] createPlaceholder(Image image, int[] widths) {
+        Path path = ImageVariantUtil.getCandidates(image.path(), widths, 1, false).stream()
+                .filter(Files::exists)
+                .findFirst()
+                .orElse(image.path());
+        try {
+            return new Object[] {imageService.createPlaceholder(path), image.id()};
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not create placeholder of {}: {}", path, ex.getMessage());
+            return null;
+        }
+    }
+
+    private record Image(long id, Path path) {}
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,6 +31,7 @@ public class MediaRequest {
     private Instant createdAt;
     @Column(name = "updated_at")
     private Instant updatedAt;
-    @Column(name = "created_by")
+    @ManyToOne
+    @JoinColumn(name = "created_by")
     private User createdBy;
 }
@@ -38,7 +38,7 @@ public class MediaRequestController {
 
     @PatchMapping("/{id}")
     public ResponseEntity<?> patchMediaRequest(@PathVariable Long id, @RequestBody MediaRequestPatchRequest mediaRequestPatchRequest, Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         mediaRequestService.patchMediaRequest(id, user, mediaRequestPatchRequest);
         return new ResponseEntity<>(HttpStatus.OK);
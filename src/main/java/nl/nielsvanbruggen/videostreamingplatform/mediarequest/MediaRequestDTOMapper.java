@@ -14,7 +14,7 @@ public class MediaRequestDTOMapper implements Function<MediaRequest, MediaReques
                 mediaRequest.getYear(),
                 mediaRequest.getComment(),
                 mediaRequest.getCreatedAt(),
-                mediaRequest.getCreatedBy().getUsername(),
+                mediaRequest.getCreatedBy() == null ? null : mediaRequest.getCreatedBy().getUsername(),
                 mediaRequest.getStatus()
         );
     }
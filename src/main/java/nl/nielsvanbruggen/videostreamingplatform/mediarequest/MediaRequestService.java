@@ -47,7 +47,7 @@ public class MediaRequestService {
         MediaRequest mediaRequest = mediaRequestRepository.findById(id)
                 .orElseThrow(() -> new InternalException("Request does not exist."));
 
-        if(!mediaRequest.getCreatedBy().equals(user) &&
+        if((mediaRequest.getCreatedBy() == null || mediaRequest.getCreatedBy().getId() != user.getId()) &&
                 !user.getAuthorities().contains(new SimpleGrantedAuthority(Role.ADMIN.name()))
         ) {
             throw new IllegalArgumentException("Insufficient permission.");
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import nl.nielsvanbruggen.videostreamingplatform.global.exception.InvalidTokenException;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
 import nl.nielsvanbruggen.videostreamingplatform.user.repository.UserRepository;
+import nl.nielsvanbruggen.videostreamingplatform.user.service.UserPrincipalService;
 import nl.nielsvanbruggen.videostreamingplatform.global.util.TokenGeneratorUtil;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,7 @@ import java.util.Optional;
 public class PasswordResetService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalService userPrincipalService;
     private final List<PasswordResetToken> passwordResetTokens = new ArrayList<>();
 
     public void createToken(PasswordResetPostRequest passwordResetPostRequest) {
@@ -53,6 +55,7 @@ public class PasswordResetService {
         User user = passwordResetToken.getUser();
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         userRepository.save(user);
+        userPrincipalService.evict(user.getUsername());
         passwordResetTokens.remove(passwordResetToken);
     }
 }
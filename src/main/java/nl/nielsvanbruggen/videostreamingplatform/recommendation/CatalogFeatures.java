@@ -0,0 +1,134 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import nl.nielsvanbruggen.videostreamingplatform.actor.dto.MediaActorView;
+import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenreView;
+
+import java.util.*;
+
+// Read-only view of the catalog used for scoring. Media, genres and actors are numbered
+// from zero, so features and affinities fit in plain arrays. Inverted lists from genre and
+// actor to media let scoring start from the features a user watched.
+public class CatalogFeatures {
+    private final long[] mediaIds;
+    private final Map<Long, Integer> mediaIndexes;
+    private final int[][] genres;
+    private final int[][] actors;
+    private final int[][] mediaByGenre;
+    private final int[][] mediaByActor;
+
+    private CatalogFeatures(long[] mediaIds, Map<Long, Integer> mediaIndexes, int[][] genres, int[][] actors, int genreCount, int actorCount) {
+        this.mediaIds = mediaIds;
+        this.mediaIndexes = mediaIndexes;
+        this.genres = genres;
+        this.actors = actors;
+        this.mediaByGenre = invert(genres, genreCount);
+        this.mediaByActor = invert(actors, actorCount);
+    }
+
+    public static CatalogFeatures build(List<Long> mediaIds, List<MediaGenreView> genreViews, List<MediaActorView> actorViews) {
+        long[] ids = mediaIds.stream()
+                .mapToLong(Long::longValue)
+                .distinct()
+                .sorted()
+                .toArray();
+        Map<Long, Integer> mediaIndexes = new HashMap<>();
+        for(int i = 0; i < ids.length; i++) {
+            mediaIndexes.put(ids[i], i);
+        }
+
+        Map<String, Integer> genreIndexes = new HashMap<>();
+        List<List<Integer>> genres = emptyLists(ids.length);
+        genreViews.forEach(view -> {
+            Integer mediaIndex = mediaIndexes.get(view.getMediaId());
+            if(mediaIndex == null) return;
+            genres.get(mediaIndex).add(genreIndexes.computeIfAbsent(view.getGenre(), genre -> genreIndexes.size()));
+        });
+
+        Map<Long, Integer> actorIndexes = new HashMap<>();
+        List<List<Integer>> actors = emptyLists(ids.length);
+        actorViews.forEach(view -> {
+            Integer mediaIndex = mediaIndexes.get(view.getMediaId());
+            if(mediaIndex == null) return;
+            actors.get(mediaIndex).add(actorIndexes.computeIfAbsent(view.getActorId(), actor -> actorIndexes.size()));
+        });
+
+        return new CatalogFeatures(ids,
+                mediaIndexes,
+                toArrays(genres),
+                toArrays(actors),
+                genreIndexes.size(),
+                actorIndexes.size());
+    }
+
+    public int size() {
+        return mediaIds.length;
+    }
+
+    public long getMediaId(int index) {
+        return mediaIds[index];
+    }
+
+    public int indexOf(long mediaId) {
+        return mediaIndexes.getOrDefault(mediaId, -1);
+    }
+
+    public int[] getGenres(int index) {
+        return genres[index];
+    }
+
+    public int[] getActors(int index) {
+        return actors[index];
+    }
+
+    // Media indexes in ascending order.
+    public int[] getMediaWithGenre(int genre) {
+        return mediaByGenre[genre];
+    }
+
+    public int[] getMediaWithActor(int actor) {
+        return mediaByActor[actor];
+    }
+
+    public int getGenreCount() {
+        return mediaByGenre.length;
+    }
+
+    public int getActorCount() {
+        return mediaByActor.length;
+    }
+
+    private static int[][] invert(int[][] features, int featureCount) {
+        int[] counts = new int[featureCount];
+        for(int[] mediaFeatures: features) {
+            for(int feature: mediaFeatures) counts[feature]++;
+        }
+
+        int[][] inverted = new int[featureCount][];
+        for(int feature = 0; feature < featureCount; feature++) {
+            inverted[feature] = new int[counts[feature]];
+        }
+        Arrays.fill(counts, 0);
+        for(int mediaIndex = 0; mediaIndex < features.length; mediaIndex++) {
+            for(int feature: features[mediaIndex]) {
+                inverted[feature][counts[feature]++] = mediaIndex;
+            }
+        }
+        return inverted;
+    }
+
+    private static List<List<Integer>> emptyLists(int size) {
+        List<List<Integer>> lists = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        return lists.stream()
+                .map(list -> list.stream()
+                        .mapToInt(Integer::intValue)
+                        .toArray())
+                .toArray(int[][]::new);
+    }
+}
@@ -0,0 +1,92 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import java.util.Arrays;
+
+// Open addressing map from non-negative int keys to int values, without boxing. The used
+// slots are tracked, so iterating and clearing cost the number of entries, not the capacity.
+public class IntIntHashMap {
+    private static final int EMPTY = -1;
+    private int[] keys;
+    private int[] values;
+    private int[] usedSlots;
+    private int size;
+
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.usedSlots = new int[capacity / 2];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public int get(int key) {
+        int slot = findSlot(keys, key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public void addTo(int key, int delta) {
+        if(key < 0) throw new IllegalArgumentException("Keys must not be negative.");
+
+        int slot = findSlot(keys, key);
+        if(keys[slot] == EMPTY) {
+            if(size == usedSlots.length) {
+                resize();
+                slot = findSlot(keys, key);
+            }
+            keys[slot] = key;
+            usedSlots[size++] = slot;
+        }
+        values[slot] += delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for(int i = 0; i < size; i++) {
+            keys[usedSlots[i]] = EMPTY;
+            values[usedSlots[i]] = 0;
+        }
+        size = 0;
+    }
+
+    public void forEach(Entry consumer) {
+        for(int i = 0; i < size; i++) {
+            consumer.accept(keys[usedSlots[i]], values[usedSlots[i]]);
+        }
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldUsedSlots = usedSlots;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        usedSlots = new int[oldKeys.length];
+        Arrays.fill(keys, EMPTY);
+
+        for(int i = 0; i < size; i++) {
+            int oldSlot = oldUsedSlots[i];
+            int slot = findSlot(keys, oldKeys[oldSlot]);
+            keys[slot] = oldKeys[oldSlot];
+            values[slot] = oldValues[oldSlot];
+            usedSlots[i] = slot;
+        }
+    }
+
+    private static int findSlot(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while(keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(int key, int value);
+    }
+}
@@ -0,0 +1,115 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Item-item cosine similarity over media watched by the same users. Every media keeps only
+// its most similar neighbours, stored as parallel primitive arrays.
+public class ItemSimilarityModel {
+    public static final ItemSimilarityModel EMPTY = new ItemSimilarityModel(new int[0][], new float[0][]);
+    private static final int[] NO_NEIGHBOURS = new int[0];
+    private static final float[] NO_SIMILARITIES = new float[0];
+    private static final int PARTITION_SIZE = 256;
+    private final int[][] neighbours;
+    private final float[][] similarities;
+
+    private ItemSimilarityModel(int[][] neighbours, float[][] similarities) {
+        this.neighbours = neighbours;
+        this.similarities = similarities;
+    }
+
+    // Histories contain the media indexes watched per user. Rows are independent, so the
+    // media are split into partitions that are computed in parallel.
+    public static ItemSimilarityModel build(int mediaCount, List<int[]> histories, int maxNeighbours, ForkJoinPool pool) {
+        int[][] watchers = invert(mediaCount, histories);
+        int[][] neighbours = new int[mediaCount][];
+        float[][] similarities = new float[mediaCount][];
+
+        pool.invoke(new RowTask(0, mediaCount, histories, watchers, neighbours, similarities, maxNeighbours));
+        return new ItemSimilarityModel(neighbours, similarities);
+    }
+
+    public int[] getNeighbours(int mediaIndex) {
+        return mediaIndex < neighbours.length ? neighbours[mediaIndex] : NO_NEIGHBOURS;
+    }
+
+    public float[] getSimilarities(int mediaIndex) {
+        return mediaIndex < similarities.length ? similarities[mediaIndex] : NO_SIMILARITIES;
+    }
+
+    private static int[][] invert(int mediaCount, List<int[]> histories) {
+        int[] counts = new int[mediaCount];
+        histories.forEach(history -> {
+            for(int mediaIndex: history) counts[mediaIndex]++;
+        });
+
+        int[][] watchers = new int[mediaCount][];
+        for(int mediaIndex = 0; mediaIndex < mediaCount; mediaIndex++) {
+            watchers[mediaIndex] = new int[counts[mediaIndex]];
+            counts[mediaIndex] = 0;
+        }
+        for(int user = 0; user < histories.size(); user++) {
+            for(int mediaIndex: histories.get(user)) {
+                watchers[mediaIndex][counts[mediaIndex]++] = user;
+            }
+        }
+        return watchers;
+    }
+
+    private static class RowTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final List<int[]> histories;
+        private final int[][] watchers;
+        private final int[][] neighbours;
+        private final float[][] similarities;
+        private final int maxNeighbours;
+
+        private RowTask(int from, int to, List<int[]> histories, int[][] watchers, int[][] neighbours, float[][] similarities, int maxNeighbours) {
+            this.from = from;
+            this.to = to;
+            this.histories = histories;
+            this.watchers = watchers;
+            this.neighbours = neighbours;
+            this.similarities = similarities;
+            this.maxNeighbours = maxNeighbours;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > PARTITION_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(from, middle, histories, watchers, neighbours, similarities, maxNeighbours),
+                        new RowTask(middle, to, histories, watchers, neighbours, similarities, maxNeighbours));
+                return;
+            }
+
+            IntIntHashMap coOccurrences = new IntIntHashMap(64);
+            for(int mediaIndex = from; mediaIndex < to; mediaIndex++) {
+                coOccurrences.clear();
+                for(int user: watchers[mediaIndex]) {
+                    for(int other: histories.get(user)) {
+                        if(other != mediaIndex) coOccurrences.addTo(other, 1);
+                    }
+                }
+                computeRow(mediaIndex, coOccurrences);
+            }
+        }
+
+        private void computeRow(int mediaIndex, IntIntHashMap coOccurrences) {
+            TopK topK = new TopK(Math.min(maxNeighbours, coOccurrences.size()));
+            double watcherCount = watchers[mediaIndex].length;
+            coOccurrences.forEach((other, count) ->
+                    topK.offer(other, count / Math.sqrt(watcherCount * watchers[other].length)));
+
+            int[] row = topK.toSortedArray();
+            float[] rowSimilarities = new float[row.length];
+            for(int i = 0; i < row.length; i++) {
+                rowSimilarities[i] = (float) (coOccurrences.get(row[i]) / Math.sqrt(watcherCount * watchers[row[i]].length));
+            }
+            neighbours[mediaIndex] = row;
+            similarities[mediaIndex] = rowSimilarities;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+public record PartitionReport(
+        int index,
+        int users,
+        long durationMillis
+) {
+    public long usersPerSecond() {
+        return durationMillis == 0 ? users * 1000L : users * 1000L / durationMillis;
+    }
+}
@@ -0,0 +1,13 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import java.util.List;
+
+public record RebuildReport(
+        int users,
+        int media,
+        long loadMillis,
+        long modelMillis,
+        long durationMillis,
+        List<PartitionReport> partitions
+) {
+}
@@ -19,7 +19,7 @@ public class RecommendationController {
 
     @GetMapping
     public ResponseEntity<Recommendation> getRecommendations(Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         return new ResponseEntity<>(recommendationService.getRecommendations(user), HttpStatus.OK);
     }
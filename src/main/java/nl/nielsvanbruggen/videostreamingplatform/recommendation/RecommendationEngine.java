@@ -0,0 +1,310 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.config.EnvironmentProperties;
+import nl.nielsvanbruggen.videostreamingplatform.actor.repository.MediaActorRepository;
+import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenreRepository;
+import nl.nielsvanbruggen.videostreamingplatform.media.event.MediaChangedEvent;
+import nl.nielsvanbruggen.videostreamingplatform.video.repository.VideoRepository;
+import nl.nielsvanbruggen.videostreamingplatform.watched.event.WatchedEvent;
+import nl.nielsvanbruggen.videostreamingplatform.watched.repository.WatchedRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Keeps a profile per user that is updated on every watch, so recommendations refresh right
+// after a watch. A full rebuild only runs when the catalog changed and as a periodic reconcile.
+// Rebuilds shard the users over a bounded pool and swap the result in at once. Watches that
+// arrive during a rebuild are replayed onto its profiles before the swap.
+// The result of each rebuild is written to a snapshot, so a (re)starting node serves the last
+// recommendations right away while the rebuild runs in the background.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecommendationEngine {
+    public static final int MIN_WATCHED_THRESHOLD = 10;
+    static final int RECENT_WINDOW = 10;
+    static final int MAX_NEIGHBOURS = 50;
+    private static final int MAX_RETURN_ENTRIES = 50;
+    private static final double DEFAULT_COLLABORATIVE_WEIGHT = 1;
+    private static final int PARTITIONS_PER_THREAD = 4;
+    // Older snapshots may recommend media that no longer exist.
+    private static final Duration MAX_SNAPSHOT_AGE = Duration.ofDays(7);
+    private final VideoRepository videoRepository;
+    private final MediaGenreRepository mediaGenreRepository;
+    private final MediaActorRepository mediaActorRepository;
+    private final WatchedRepository watchedRepository;
+    private final EnvironmentProperties env;
+    private final MeterRegistry meterRegistry;
+    private volatile State state = new State(CatalogFeatures.build(List.of(), List.of(), List.of()),
+            ItemSimilarityModel.EMPTY,
+            new ConcurrentHashMap<>(),
+            new ConcurrentHashMap<>());
+    private volatile boolean catalogChanged;
+    private volatile RebuildReport lastRebuild;
+    private final List<WatchedEvent> pendingWatches = new ArrayList<>();
+    private boolean rebuilding;
+    private ForkJoinPool pool;
+
+    public UserRecommendations getRecommendations(long userId) {
+        return state.recommendations().getOrDefault(userId, UserRecommendations.EMPTY);
+    }
+
+    public Optional<RebuildReport> getLastRebuild() {
+        return Optional.ofNullable(lastRebuild);
+    }
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(getParallelism());
+        loadSnapshot();
+    }
+
+    @PreDestroy
+    public void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    // Startup doesn't wait for the first rebuild, until then users get the snapshot recommendations.
+    @EventListener(ApplicationReadyEvent.class)
+    public void initRecommendations() {
+        CompletableFuture.runAsync(this::rebuild, pool)
+                .exceptionally(ex -> {
+                    log.error("Initial recommendation rebuild failed.", ex);
+                    return null;
+                });
+    }
+
+    @Scheduled(cron = "0 0 0/6 1/1 * *")
+    public synchronized void rebuild() {
+        synchronized(pendingWatches) {
+            rebuilding = true;
+        }
+        try {
+            rebuildState();
+        } finally {
+            synchronized(pendingWatches) {
+                pendingWatches.clear();
+                rebuilding = false;
+            }
+        }
+    }
+
+    private void rebuildState() {
+        long start = System.nanoTime();
+        catalogChanged = false;
+
+        CatalogFeatures catalog = loadCatalog();
+        Map<Long, int[]> histories = loadHistories(catalog);
+        long loaded = System.nanoTime();
+
+        ItemSimilarityModel similarity = ItemSimilarityModel.build(catalog.size(),
+                new ArrayList<>(histories.values()),
+                MAX_NEIGHBOURS,
+                pool);
+        long modelBuilt = System.nanoTime();
+
+        Map<Long, UserProfile> profiles = new ConcurrentHashMap<>();
+        Map<Long, UserRecommendations> recommendations = new ConcurrentHashMap<>();
+        List<CompletableFuture<PartitionReport>> partitions = partition(new ArrayList<>(histories.entrySet())).stream()
+                .map(partition -> CompletableFuture.supplyAsync(() ->
+                        rebuildPartition(partition, catalog, similarity, profiles, recommendations), pool))
+                .toList();
+        List<PartitionReport> partitionReports = partitions.stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        State rebuilt = new State(catalog, similarity, profiles, recommendations);
+        synchronized(pendingWatches) {
+            pendingWatches.forEach(event -> watch(rebuilt, event));
+            state = rebuilt;
+        }
+        writeSnapshot(recommendations);
+
+        RebuildReport report = new RebuildReport(profiles.size(),
+                catalog.size(),
+                toMillis(loaded - start),
+                toMillis(modelBuilt - loaded),
+                toMillis(System.nanoTime() - start),
+                partitionReports);
+        lastRebuild = report;
+        meterRegistry.timer("recommendation.rebuild").record(report.durationMillis(), TimeUnit.MILLISECONDS);
+        partitionReports.forEach(partition -> log.debug("Recommendation partition {}: {} users in {} ms ({} users/s).",
+                partition.index(), partition.users(), partition.durationMillis(), partition.usersPerSecond()));
+        log.info("Rebuilt recommendations for {} users over {} media in {} ms ({} ms loading, {} ms similarity model, {} partitions on {} threads).",
+                report.users(), report.media(), report.durationMillis(), report.loadMillis(), report.modelMillis(),
+                partitionReports.size(), pool.getParallelism());
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void rebuildIfCatalogChanged() {
+        if(catalogChanged) rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWatched(WatchedEvent event) {
+        synchronized(pendingWatches) {
+            if(rebuilding) pendingWatches.add(event);
+        }
+        watch(state, event);
+    }
+
+    private void watch(State current, WatchedEvent event) {
+        int mediaIndex = current.catalog().indexOf(event.mediaId());
+        if(mediaIndex == -1) return;
+
+        UserProfile profile = current.profiles().computeIfAbsent(event.userId(),
+                userId -> new UserProfile(current.catalog(), RECENT_WINDOW));
+        if(profile.watch(mediaIndex, current.catalog())) {
+            current.recommendations().put(event.userId(), recommend(profile, current.catalog(), current.similarity(), getCollaborativeWeight()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMediaChanged(MediaChangedEvent event) {
+        catalogChanged = true;
+    }
+
+    private PartitionReport rebuildPartition(Partition partition,
+                                             CatalogFeatures catalog,
+                                             ItemSimilarityModel similarity,
+                                             Map<Long, UserProfile> profiles,
+                                             Map<Long, UserRecommendations> recommendations) {
+        long start = System.nanoTime();
+        double collaborativeWeight = getCollaborativeWeight();
+        partition.histories().forEach(entry -> {
+            UserProfile profile = new UserProfile(catalog, RECENT_WINDOW);
+            for(int mediaIndex: entry.getValue()) {
+                profile.watch(mediaIndex, catalog);
+            }
+            profiles.put(entry.getKey(), profile);
+            recommendations.put(entry.getKey(), recommend(profile, catalog, similarity, collaborativeWeight));
+        });
+        return new PartitionReport(partition.index(), partition.histories().size(), toMillis(System.nanoTime() - start));
+    }
+
+    private List<Partition> partition(List<Map.Entry<Long, int[]>> histories) {
+        int partitionCount = Math.max(1, Math.min(histories.size(), pool.getParallelism() * PARTITIONS_PER_THREAD));
+        List<Partition> partitions = new ArrayList<>(partitionCount);
+        for(int i = 0; i < partitionCount; i++) {
+            int from = (int) ((long) histories.size() * i / partitionCount);
+            int to = (int) ((long) histories.size() * (i + 1) / partitionCount);
+            partitions.add(new Partition(i, histories.subList(from, to)));
+        }
+        return partitions;
+    }
+
+    // Only holds the recommendations, watches are applied again once the rebuild swapped in a catalog.
+    private void loadSnapshot() {
+        Path path = getSnapshotPath();
+        if(path == null || !Files.exists(path)) return;
+
+        try {
+            long start = System.nanoTime();
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - RecommendationSnapshot.readCreatedAt(path));
+            if(age.compareTo(MAX_SNAPSHOT_AGE) > 0) {
+                log.warn("Skipping recommendation snapshot {}, it is {} hours old, waiting for the rebuild.", path, age.toHours());
+                return;
+            }
+            Map<Long, UserRecommendations> recommendations = new ConcurrentHashMap<>(RecommendationSnapshot.read(path));
+            state = new State(state.catalog(), state.similarity(), state.profiles(), recommendations);
+            log.info("Loaded recommendations for {} users from snapshot {} of {} minutes ago in {} ms.",
+                    recommendations.size(), path, age.toMinutes(), toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not load recommendation snapshot {}, waiting for the rebuild.", path, ex);
+        }
+    }
+
+    private void writeSnapshot(Map<Long, UserRecommendations> recommendations) {
+        Path path = getSnapshotPath();
+        if(path == null) return;
+
+        try {
+            RecommendationSnapshot.write(path, recommendations, System.currentTimeMillis());
+        } catch (IOException ex) {
+            log.error("Could not write recommendation snapshot {}.", path, ex);
+        }
+    }
+
+    CatalogFeatures loadCatalog() {
+        return CatalogFeatures.build(videoRepository.findAllMediaIds(),
+                mediaGenreRepository.findAllMediaGenreViews(),
+                mediaActorRepository.findAllMediaActorViews());
+    }
+
+    // Media indexes watched per user, least recently watched first.
+    Map<Long, int[]> loadHistories(CatalogFeatures catalog) {
+        Map<Long, List<Integer>> histories = new LinkedHashMap<>();
+        watchedRepository.findWatchHistory()
+                .forEach(view -> {
+                    int mediaIndex = catalog.indexOf(view.getMediaId());
+                    if(mediaIndex == -1) return;
+                    histories.computeIfAbsent(view.getUserId(), userId -> new ArrayList<>()).add(mediaIndex);
+                });
+
+        Map<Long, int[]> result = new LinkedHashMap<>();
+        histories.forEach((userId, history) -> result.put(userId, history.stream()
+                .mapToInt(Integer::intValue)
+                .toArray()));
+        return result;
+    }
+
+    private Path getSnapshotPath() {
+        if(env.getRecommendation() == null || env.getRecommendation().get("snapshot-path") == null) return null;
+        return Path.of(env.getRecommendation().get("snapshot-path"));
+    }
+
+    private int getParallelism() {
+        if(env.getRecommendation() == null || env.getRecommendation().get("parallelism") == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return Integer.parseInt(env.getRecommendation().get("parallelism"));
+    }
+
+    double getCollaborativeWeight() {
+        if(env.getRecommendation() == null) return DEFAULT_COLLABORATIVE_WEIGHT;
+
+        String weight = env.getRecommendation().get("collaborative-weight");
+        return weight == null ? DEFAULT_COLLABORATIVE_WEIGHT : Double.parseDouble(weight);
+    }
+
+    private UserRecommendations recommend(UserProfile profile, CatalogFeatures catalog, ItemSimilarityModel similarity, double collaborativeWeight) {
+        if(profile.getWatchedCount() <= MIN_WATCHED_THRESHOLD) return UserRecommendations.EMPTY;
+
+        int[] mediaIndexes = profile.recommend(catalog, similarity, collaborativeWeight, MAX_RETURN_ENTRIES);
+        long[] mediaIds = new long[mediaIndexes.length];
+        for(int i = 0; i < mediaIndexes.length; i++) {
+            mediaIds[i] = catalog.getMediaId(mediaIndexes[i]);
+        }
+        return new UserRecommendations(mediaIds, profile.getRecentMediaIds(catalog));
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private record Partition(int index, List<Map.Entry<Long, int[]>> histories) {}
+
+    private record State(
+            CatalogFeatures catalog,
+            ItemSimilarityModel similarity,
+            Map<Long, UserProfile> profiles,
+            Map<Long, UserRecommendations> recommendations
+    ) {}
+}
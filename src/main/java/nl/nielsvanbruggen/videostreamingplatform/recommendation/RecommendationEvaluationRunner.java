@@ -0,0 +1,34 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+// Logs precision@K for a range of blend weights against the configured database.
+// Run locally with the "evaluation" profile, e.g. mvn spring-boot:run -Dspring-boot.run.profiles=evaluation
+@Slf4j
+@Component
+@Profile("evaluation")
+@RequiredArgsConstructor
+public class RecommendationEvaluationRunner implements ApplicationRunner {
+    private static final int HELD_OUT = 2;
+    private static final int K = 10;
+    private static final double[] COLLABORATIVE_WEIGHTS = {0, 0.5, 1, 2, 5, 100};
+    private final RecommendationEngine recommendationEngine;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        CatalogFeatures catalog = recommendationEngine.loadCatalog();
+        Collection<int[]> histories = recommendationEngine.loadHistories(catalog).values();
+
+        for(double weight: COLLABORATIVE_WEIGHTS) {
+            double precision = RecommendationEvaluator.precisionAtK(catalog, histories, HELD_OUT, K, weight);
+            log.info("precision@{} with collaborative weight {}: {}", K, weight, String.format("%.4f", precision));
+        }
+    }
+}
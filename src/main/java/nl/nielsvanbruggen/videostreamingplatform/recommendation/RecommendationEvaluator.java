@@ -0,0 +1,54 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Offline precision@K: the most recent watches of every user are held out, the model is
+// trained on the remaining history and every held out media in the top K counts as a hit.
+public class RecommendationEvaluator {
+    private RecommendationEvaluator() {}
+
+    public static double precisionAtK(CatalogFeatures catalog, Collection<int[]> histories, int heldOut, int k, double collaborativeWeight) {
+        List<int[]> training = new ArrayList<>();
+        List<int[]> evaluatedTraining = new ArrayList<>();
+        List<int[]> evaluatedTests = new ArrayList<>();
+        for(int[] history: histories) {
+            if(history.length <= heldOut) {
+                training.add(history);
+                continue;
+            }
+            int[] userTraining = Arrays.copyOfRange(history, 0, history.length - heldOut);
+            training.add(userTraining);
+            evaluatedTraining.add(userTraining);
+            evaluatedTests.add(Arrays.copyOfRange(history, history.length - heldOut, history.length));
+        }
+        if(evaluatedTests.isEmpty()) return 0;
+
+        ItemSimilarityModel similarity = ItemSimilarityModel.build(catalog.size(),
+                training,
+                RecommendationEngine.MAX_NEIGHBOURS,
+                ForkJoinPool.commonPool());
+
+        double precision = 0;
+        for(int user = 0; user < evaluatedTests.size(); user++) {
+            UserProfile profile = new UserProfile(catalog, RecommendationEngine.RECENT_WINDOW);
+            for(int mediaIndex: evaluatedTraining.get(user)) {
+                profile.watch(mediaIndex, catalog);
+            }
+
+            BitSet expected = new BitSet();
+            for(int mediaIndex: evaluatedTests.get(user)) {
+                expected.set(mediaIndex);
+            }
+            long hits = Arrays.stream(profile.recommend(catalog, similarity, collaborativeWeight, k))
+                    .filter(expected::get)
+                    .count();
+            precision += hits / (double) k;
+        }
+        return precision / evaluatedTests.size();
+    }
+}
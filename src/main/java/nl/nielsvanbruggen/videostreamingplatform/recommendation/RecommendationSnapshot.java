@@ -0,0 +1,119 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Binary snapshot of the recommendation results:
+// magic, version, created at, user count, then per user the user id and both media id lists,
+// followed by a CRC32 of everything before it.
+public class RecommendationSnapshot {
+    private static final int MAGIC = 0x56535052;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES;
+
+    private RecommendationSnapshot() {}
+
+    // Written to a temporary file first, so readers never see a partial snapshot.
+    public static void write(Path path, Map<Long, UserRecommendations> recommendations, long createdAt) throws IOException {
+        int size = HEADER_SIZE + Integer.BYTES;
+        for(UserRecommendations userRecommendations: recommendations.values()) {
+            size += Long.BYTES + Integer.BYTES * 2 +
+                    Long.BYTES * (userRecommendations.mediaIds().length + userRecommendations.inputMediaIds().length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(createdAt)
+                .putInt(recommendations.size());
+        recommendations.forEach((userId, userRecommendations) -> {
+            buffer.putLong(userId);
+            putIds(buffer, userRecommendations.mediaIds());
+            putIds(buffer, userRecommendations.inputMediaIds());
+        });
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) checksum.getValue());
+        buffer.flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Map<Long, UserRecommendations> read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(buffer.capacity() < HEADER_SIZE + Integer.BYTES) {
+            throw new IOException("Recommendation snapshot is truncated.");
+        }
+        if(buffer.getInt() != MAGIC) {
+            throw new IOException("File is not a recommendation snapshot.");
+        }
+        int version = buffer.getInt();
+        if(version != VERSION) {
+            throw new IOException("Unsupported recommendation snapshot version " + version + ".");
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().position(0).limit(buffer.capacity() - Integer.BYTES));
+        if(buffer.getInt(buffer.capacity() - Integer.BYTES) != (int) checksum.getValue()) {
+            throw new IOException("Recommendation snapshot checksum does not match.");
+        }
+
+        buffer.getLong();
+        int userCount = buffer.getInt();
+        Map<Long, UserRecommendations> recommendations = new HashMap<>(userCount * 2);
+        for(int i = 0; i < userCount; i++) {
+            long userId = buffer.getLong();
+            recommendations.put(userId, new UserRecommendations(getIds(buffer), getIds(buffer)));
+        }
+        return recommendations;
+    }
+
+    public static long readCreatedAt(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining()) {
+                if(channel.read(header, header.position()) == -1) throw new IOException("Recommendation snapshot is truncated.");
+            }
+            if(header.getInt(0) != MAGIC) {
+                throw new IOException("File is not a recommendation snapshot.");
+            }
+            return header.getLong(Integer.BYTES * 2);
+        }
+    }
+
+    private static void putIds(ByteBuffer buffer, long[] ids) {
+        buffer.putInt(ids.length);
+        for(long id: ids) {
+            buffer.putLong(id);
+        }
+    }
+
+    private static long[] getIds(ByteBuffer buffer) {
+        long[] ids = new long[buffer.getInt()];
+        for(int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.getLong();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,90 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+// Keeps the highest scoring indexes in a bounded min-heap, so selecting from n candidates
+// costs O(n log k) instead of sorting all of them. Equal scores prefer the lower index.
+public class TopK {
+    private final int[] indexes;
+    private final double[] scores;
+    private int size;
+
+    public TopK(int capacity) {
+        this.indexes = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    public void offer(int index, double score) {
+        if(indexes.length == 0) return;
+
+        if(size < indexes.length) {
+            indexes[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+        }
+        else if(isWorse(indexes[0], scores[0], index, score)) {
+            indexes[0] = index;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    public boolean isFull() {
+        return size == indexes.length;
+    }
+
+    // Best first.
+    public int[] toSortedArray() {
+        int[] heapIndexes = indexes.clone();
+        double[] heapScores = scores.clone();
+        int heapSize = size;
+
+        int[] sorted = new int[size];
+        for(int i = size - 1; i >= 0; i--) {
+            sorted[i] = indexes[0];
+            size--;
+            indexes[0] = indexes[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+
+        System.arraycopy(heapIndexes, 0, indexes, 0, heapIndexes.length);
+        System.arraycopy(heapScores, 0, scores, 0, heapScores.length);
+        size = heapSize;
+        return sorted;
+    }
+
+    private static boolean isWorse(int index, double score, int otherIndex, double otherScore) {
+        if(score != otherScore) return score < otherScore;
+        return index > otherIndex;
+    }
+
+    private void siftUp(int position) {
+        while(position > 0) {
+            int parent = (position - 1) / 2;
+            if(!isWorse(indexes[position], scores[position], indexes[parent], scores[parent])) return;
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while(true) {
+            int worst = position;
+            int left = position * 2 + 1;
+            int right = left + 1;
+            if(left < size && isWorse(indexes[left], scores[left], indexes[worst], scores[worst])) worst = left;
+            if(right < size && isWorse(indexes[right], scores[right], indexes[worst], scores[worst])) worst = right;
+            if(worst == position) return;
+            swap(position, worst);
+            position = worst;
+        }
+    }
+
+    private void swap(int first, int second) {
+        int index = indexes[first];
+        indexes[first] = indexes[second];
+        indexes[second] = index;
+        double score = scores[first];
+        scores[first] = scores[second];
+        scores[second] = score;
+    }
+}
@@ -0,0 +1,198 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+// Genre and actor affinity of a single user, updated one watch at a time. Only the most
+// recently watched media count, a media leaving that window is subtracted again.
+public class UserProfile {
+    private static final ThreadLocal<Candidates> CANDIDATES = ThreadLocal.withInitial(Candidates::new);
+    private final int windowSize;
+    private final Deque<Integer> recent = new ArrayDeque<>();
+    private final BitSet watched = new BitSet();
+    private final int[] genreAffinity;
+    private final int[] actorAffinity;
+
+    public UserProfile(CatalogFeatures catalog, int windowSize) {
+        this.windowSize = windowSize;
+        this.genreAffinity = new int[catalog.getGenreCount()];
+        this.actorAffinity = new int[catalog.getActorCount()];
+    }
+
+    // Returns whether the recent window changed.
+    public synchronized boolean watch(int mediaIndex, CatalogFeatures catalog) {
+        watched.set(mediaIndex);
+        if(!recent.isEmpty() && recent.peekFirst() == mediaIndex) return false;
+
+        if(recent.remove(mediaIndex)) {
+            recent.addFirst(mediaIndex);
+            return true;
+        }
+        recent.addFirst(mediaIndex);
+        addAffinity(mediaIndex, catalog, 1);
+        if(recent.size() > windowSize) {
+            addAffinity(recent.removeLast(), catalog, -1);
+        }
+        return true;
+    }
+
+    public synchronized int getWatchedCount() {
+        return watched.cardinality();
+    }
+
+    public synchronized long[] getRecentMediaIds(CatalogFeatures catalog) {
+        return recent.stream()
+                .mapToLong(catalog::getMediaId)
+                .toArray();
+    }
+
+    // Only media sharing a genre or actor with the recent window, or similar to one of its media,
+    // can score above zero. Their scores are summed from the inverted lists of those features, so
+    // the rest of the catalog is never scored. The remaining places are filled with unwatched media
+    // in index order, which is what scoring all of them would have picked. The scores are kept in
+    // arrays per thread that are only cleared where they were written.
+    // When those lists would reach the whole catalog anyway, scanning it directly is cheaper.
+    public synchronized int[] recommend(CatalogFeatures catalog, ItemSimilarityModel similarity, double collaborativeWeight, int limit) {
+        if(getReach(catalog) >= catalog.size()) return recommendAll(catalog, similarity, collaborativeWeight, limit);
+
+        Candidates candidates = CANDIDATES.get().reset(catalog.size());
+        try {
+            return recommend(candidates, catalog, similarity, collaborativeWeight, limit);
+        } finally {
+            candidates.clear();
+        }
+    }
+
+    private int[] recommend(Candidates candidates, CatalogFeatures catalog, ItemSimilarityModel similarity, double collaborativeWeight, int limit) {
+        BitSet visitedGenres = new BitSet();
+        BitSet visitedActors = new BitSet();
+        for(int recentIndex: recent) {
+            for(int genre: catalog.getGenres(recentIndex)) {
+                if(visitedGenres.get(genre)) continue;
+                visitedGenres.set(genre);
+                candidates.addContent(catalog.getMediaWithGenre(genre), genreAffinity[genre]);
+            }
+            for(int actor: catalog.getActors(recentIndex)) {
+                if(visitedActors.get(actor)) continue;
+                visitedActors.set(actor);
+                candidates.addContent(catalog.getMediaWithActor(actor), actorAffinity[actor]);
+            }
+            if(collaborativeWeight != 0) {
+                candidates.addCollaborative(similarity.getNeighbours(recentIndex), similarity.getSimilarities(recentIndex));
+            }
+        }
+
+        TopK topK = new TopK(limit);
+        for(int i = 0; i < candidates.size; i++) {
+            int mediaIndex = candidates.indexes[i];
+            if(watched.get(mediaIndex)) continue;
+            topK.offer(mediaIndex, candidates.content[mediaIndex] + collaborativeWeight * candidates.collaborative[mediaIndex]);
+        }
+        // Jumps over the watched media, only reached ones are skipped one by one.
+        for(int mediaIndex = watched.nextClearBit(0); mediaIndex < catalog.size() && !topK.isFull(); mediaIndex = watched.nextClearBit(mediaIndex + 1)) {
+            if(candidates.contains(mediaIndex)) continue;
+            topK.offer(mediaIndex, 0);
+        }
+        return topK.toSortedArray();
+    }
+
+    private int[] recommendAll(CatalogFeatures catalog, ItemSimilarityModel similarity, double collaborativeWeight, int limit) {
+        float[] collaborative = new float[catalog.size()];
+        if(collaborativeWeight != 0) {
+            for(int recentIndex: recent) {
+                int[] neighbours = similarity.getNeighbours(recentIndex);
+                float[] similarities = similarity.getSimilarities(recentIndex);
+                for(int i = 0; i < neighbours.length; i++) {
+                    collaborative[neighbours[i]] += similarities[i];
+                }
+            }
+        }
+
+        TopK topK = new TopK(limit);
+        for(int mediaIndex = 0; mediaIndex < catalog.size(); mediaIndex++) {
+            if(watched.get(mediaIndex)) continue;
+            topK.offer(mediaIndex, score(mediaIndex, catalog) + collaborativeWeight * collaborative[mediaIndex]);
+        }
+        return topK.toSortedArray();
+    }
+
+    // Upper bound of the media reached through the features of the recent window.
+    private long getReach(CatalogFeatures catalog) {
+        long reach = 0;
+        for(int recentIndex: recent) {
+            for(int genre: catalog.getGenres(recentIndex)) {
+                reach += catalog.getMediaWithGenre(genre).length;
+            }
+            for(int actor: catalog.getActors(recentIndex)) {
+                reach += catalog.getMediaWithActor(actor).length;
+            }
+        }
+        return reach;
+    }
+
+    private int score(int mediaIndex, CatalogFeatures catalog) {
+        int score = 0;
+        for(int genre: catalog.getGenres(mediaIndex)) {
+            score += genreAffinity[genre];
+        }
+        for(int actor: catalog.getActors(mediaIndex)) {
+            score += actorAffinity[actor];
+        }
+        return score;
+    }
+
+    private void addAffinity(int mediaIndex, CatalogFeatures catalog, int delta) {
+        for(int genre: catalog.getGenres(mediaIndex)) {
+            genreAffinity[genre] += delta;
+        }
+        for(int actor: catalog.getActors(mediaIndex)) {
+            actorAffinity[actor] += delta;
+        }
+    }
+
+    // Scores of the media reached from the recent window, in the order they were first reached.
+    private static class Candidates {
+        private int[] indexes = new int[0];
+        private int[] content = new int[0];
+        private float[] collaborative = new float[0];
+        private int size;
+
+        // Only grows, a smaller catalog uses the start of the arrays.
+        private Candidates reset(int mediaCount) {
+            if(indexes.length < mediaCount) {
+                indexes = new int[mediaCount];
+                content = new int[mediaCount];
+                collaborative = new float[mediaCount];
+            }
+            return this;
+        }
+
+        private void clear() {
+            for(int i = 0; i < size; i++) {
+                content[indexes[i]] = 0;
+                collaborative[indexes[i]] = 0;
+            }
+            size = 0;
+        }
+
+        private void addContent(int[] mediaIndexes, int affinity) {
+            for(int mediaIndex: mediaIndexes) {
+                if(!contains(mediaIndex)) indexes[size++] = mediaIndex;
+                content[mediaIndex] += affinity;
+            }
+        }
+
+        private void addCollaborative(int[] neighbours, float[] similarities) {
+            for(int i = 0; i < neighbours.length; i++) {
+                if(!contains(neighbours[i])) indexes[size++] = neighbours[i];
+                collaborative[neighbours[i]] += similarities[i];
+            }
+        }
+
+        // Affinities and similarities are positive, so a reached media never scores zero.
+        private boolean contains(int mediaIndex) {
+            return content[mediaIndex] != 0 || collaborative[mediaIndex] != 0;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+public record UserRecommendations(
+        long[] mediaIds,
+        long[] inputMediaIds
+) {
+    public static final UserRecommendations EMPTY = new UserRecommendations(new long[0], new long[0]);
+}
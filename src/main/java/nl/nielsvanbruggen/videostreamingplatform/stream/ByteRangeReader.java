@@ -0,0 +1,20 @@
+package nl.nielsvanbruggen.videostreamingplatform.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Reads an inclusive byte range of a file, see ByteRangeReadBenchmark for the alternatives measured.
+public class ByteRangeReader {
+    private ByteRangeReader() {}
+
+    public static byte[] readBytes(Path path, long start, long end) throws IOException {
+        try(InputStream is = Files.newInputStream(path)) {
+            is.skip(start);
+            // + 1 because start and end are inclusive.
+            // For example bytes 0-1/100 should return byte[0] and byte[1]
+            return is.readNBytes((int) (end - start + 1));
+        }
+    }
+}
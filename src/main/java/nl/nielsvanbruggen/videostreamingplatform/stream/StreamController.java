@@ -45,21 +45,25 @@ public class StreamController {
     }
 
     @GetMapping("/thumbnail/{id}")
-    public ResponseEntity<byte[]> getThumbnail(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getThumbnail(@PathVariable Long id,
+                                               @RequestParam(required = false) Integer w,
+                                               @RequestHeader HttpHeaders headers) {
         Media media = mediaService.getMedia(id);
-        return streamService.getThumbnail(media);
+        return streamService.getThumbnail(media, w, headers);
     }
 
     @GetMapping("/snapshot/{id}")
-    public ResponseEntity<byte[]> getSnapshot(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getSnapshot(@PathVariable Long id,
+                                              @RequestParam(required = false) Integer w,
+                                              @RequestHeader HttpHeaders headers) {
         Video video = videoService.getVideo(id);
-        return streamService.getSnapshot(video);
+        return streamService.getSnapshot(video, w, headers);
     }
 
     @GetMapping("/video-token/{id}")
     public ResponseEntity<VideoTokenGetResponse> getVideoToken(@PathVariable Long id, Authentication authentication) {
         Video video = videoService.getVideo(id);
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
         VideoToken token = videoTokenService.createVideoToken(user, video);
 
         VideoTokenGetResponse response = VideoTokenGetResponse.builder()
@@ -1,9 +1,15 @@
 package nl.nielsvanbruggen.videostreamingplatform.stream;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nl.nielsvanbruggen.videostreamingplatform.config.EnvironmentProperties;
 import nl.nielsvanbruggen.videostreamingplatform.global.exception.ResourceNotFoundException;
+import nl.nielsvanbruggen.videostreamingplatform.global.util.ImageVariantUtil;
 import nl.nielsvanbruggen.videostreamingplatform.global.util.MimeTypeUtil;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import nl.nielsvanbruggen.videostreamingplatform.media.repository.MediaRepository;
@@ -14,27 +20,45 @@ import nl.nielsvanbruggen.videostreamingplatform.video.repository.VideoRepositor
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StreamService {
     private final static int MAX_CHUNK_SIZE_BYTES = 1024 * 1024;
+    private final static MediaType WEBP = MediaType.parseMediaType("image/webp");
     private final EnvironmentProperties env;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private Counter bytesServed;
+
+    @PostConstruct
+    public void initMetrics() {
+        bytesServed = meterRegistry.counter("stream.bytes.served");
+        meterRegistry.gauge("stream.active", activeStreams);
+    }
 
     public ResponseEntity<?> getVideo(Video video, HttpHeaders headers) {
         Path absolutePath = Path.of(env.getVideos().get("root") + video.getPath());
 
-        long tot = totalBytes(absolutePath);
-        return createStreamResponseEntity(absolutePath, headers, tot);
+        activeStreams.incrementAndGet();
+        try {
+            long tot = totalBytes(absolutePath);
+            return createStreamResponseEntity(absolutePath, headers, tot);
+        } finally {
+            activeStreams.decrementAndGet();
+        }
     }
 
     public ResponseEntity<byte[]> getSubtitle(Subtitle subtitle) {
@@ -45,21 +69,34 @@ public class StreamService {
         return createFullResponseEntity(absolutePath, bytes, tot);
     }
 
-    public ResponseEntity<byte[]> getThumbnail(Media media) {
-        String path = media.getThumbnail();
-        Path absolutePath = Path.of(env.getThumbnail().get("root") + path);
-
-        long tot = totalBytes(absolutePath);
-        byte[] bytes = readBytes(absolutePath, 0, tot);
-        return createFullResponseEntity(absolutePath, bytes, tot);
+    public ResponseEntity<byte[]> getThumbnail(Media media, Integer width, HttpHeaders headers) {
+        Path absolutePath = Path.of(env.getThumbnail().get("root") + media.getThumbnail());
+        return createImageResponseEntity(absolutePath, ImageVariantUtil.THUMBNAIL_WIDTHS, width, headers);
     }
 
-    public ResponseEntity<byte[]> getSnapshot(Video video) {
+    public ResponseEntity<byte[]> getSnapshot(Video video, Integer width, HttpHeaders headers) {
         Path absolutePath = Path.of(env.getSnapshot().get("root") + video.getSnapshot());
+        return createImageResponseEntity(absolutePath, ImageVariantUtil.SNAPSHOT_WIDTHS, width, headers);
+    }
 
-        long tot = totalBytes(absolutePath);
-        byte[] bytes = readBytes(absolutePath, 0, tot);
-        return createFullResponseEntity(absolutePath, bytes, tot);
+    // Serves the smallest variant covering the requested width, as WebP when the client accepts it.
+    // Images stored before variants existed only have the original.
+    private ResponseEntity<byte[]> createImageResponseEntity(Path path, int[] widths, Integer width, HttpHeaders headers) {
+        boolean acceptsWebp = headers.getAccept().stream()
+                .anyMatch(WEBP::equalsTypeAndSubtype);
+        List<Path> candidates = ImageVariantUtil.getCandidates(path, widths, width, acceptsWebp);
+        Path variant = candidates.stream()
+                .filter(Files::exists)
+                .findFirst()
+                .orElse(path);
+
+        long tot = totalBytes(variant);
+        byte[] bytes = readBytes(variant, 0, tot);
+        ResponseEntity<byte[]> response = createFullResponseEntity(variant, bytes, tot);
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(bytes);
     }
 
     private ResponseEntity<?> createStreamResponseEntity(Path path, HttpHeaders headers, long tot) {
@@ -79,6 +116,7 @@ public class StreamService {
                 Long.parseLong(rangeHeader[1]);
 
         byte[] bytes = readBytes(path, start, end);
+        bytesServed.increment(bytes.length);
         return createPartialResponse(path, bytes, start, end, tot);
     }
 
@@ -114,11 +152,10 @@ public class StreamService {
     }
 
     private byte[] readBytes(Path path, long start, long end) {
-       try(InputStream is = Files.newInputStream(path)) {
-            is.skip(start);
-            // + 1 because start and end are inclusive.
-            // For example bytes 0-1/100 should return byte[0] and byte[1]
-            return is.readNBytes((int) (end - start + 1));
+        try {
+            return Observation.createNotStarted("stream.read", observationRegistry)
+                    .lowCardinalityKeyValue("type", MimeTypeUtil.getMimeType(path))
+                    .observeChecked(() -> ByteRangeReader.readBytes(path, start, end));
         } catch (IOException e) {
             log.warn(String.format("Could not read %d to %d bytes: %s", start, end, e.getMessage()));
             return new byte[0];
@@ -28,6 +28,7 @@ public class Ticket {
     private String response;
     @Column(name = "created_at")
     private Instant createdAt;
-    @Column(name = "created_by")
+    @ManyToOne
+    @JoinColumn(name = "created_by")
     private User createdBy;
 }
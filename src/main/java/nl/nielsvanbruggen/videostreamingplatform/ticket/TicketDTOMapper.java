@@ -15,7 +15,7 @@ public class TicketDTOMapper implements Function<Ticket, TicketDTO> {
                 ticket.getCreatedAt(),
                 ticket.getType(),
                 ticket.isResolved(),
-                ticket.getCreatedBy().getUsername()
+                ticket.getCreatedBy() == null ? null : ticket.getCreatedBy().getUsername()
         );
     }
 }
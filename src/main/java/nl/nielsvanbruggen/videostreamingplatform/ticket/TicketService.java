@@ -68,7 +68,7 @@ public class TicketService {
 
         User user = userRepository.findByUsername(authentication.getName())
                 .orElseThrow();
-        if(!ticket.getCreatedBy().equals(user) &&
+        if(!user.equals(ticket.getCreatedBy()) &&
                 !authentication.getAuthorities().contains(new SimpleGrantedAuthority(Role.ADMIN.name()))) {
             throw new TicketException("Insufficient permission.");
         }
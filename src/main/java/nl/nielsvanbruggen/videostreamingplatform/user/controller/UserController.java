@@ -2,13 +2,17 @@ package nl.nielsvanbruggen.videostreamingplatform.user.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.user.model.ActivityGranularity;
 import nl.nielsvanbruggen.videostreamingplatform.user.service.UserActivityService;
 import nl.nielsvanbruggen.videostreamingplatform.user.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/v1/users")
@@ -38,9 +42,11 @@ public class UserController {
     }
 
     @GetMapping("/activity")
-    public ResponseEntity<UserActivityGetResponse> getUserActivity() {
+    public ResponseEntity<UserActivityGetResponse> getUserActivity(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                   @RequestParam(defaultValue = "HOUR") ActivityGranularity granularity) {
         UserActivityGetResponse response = UserActivityGetResponse.builder()
-                .content(userActivityService.getAllUserActivity())
+                .content(userActivityService.getUserActivity(from, to, granularity))
                 .build();
 
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -1,18 +1,17 @@
 package nl.nielsvanbruggen.videostreamingplatform.user.dto;
 
-import nl.nielsvanbruggen.videostreamingplatform.user.model.UserActivityCountByHour;
-import org.checkerframework.checker.units.qual.C;
+import nl.nielsvanbruggen.videostreamingplatform.user.model.UserActivityRollup;
 import org.springframework.stereotype.Component;
 
 import java.util.function.Function;
 
 @Component
-public class UserActivityCountByHourMapper implements Function<UserActivityCountByHour, UserActivityCountByHourDTO> {
+public class UserActivityCountByHourMapper implements Function<UserActivityRollup, UserActivityCountByHourDTO> {
     @Override
-    public UserActivityCountByHourDTO apply(UserActivityCountByHour userActivityCountByHour) {
+    public UserActivityCountByHourDTO apply(UserActivityRollup userActivityRollup) {
         return UserActivityCountByHourDTO.builder()
-                .userCount(userActivityCountByHour.getUserCount())
-                .timestamp(userActivityCountByHour.getTimestamp())
+                .userCount(userActivityRollup.getUserCount())
+                .timestamp(userActivityRollup.getBucket())
                 .build();
     }
 }
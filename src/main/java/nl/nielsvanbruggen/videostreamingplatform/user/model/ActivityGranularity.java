@@ -0,0 +1,18 @@
+package nl.nielsvanbruggen.videostreamingplatform.user.model;
+
+import java.time.temporal.ChronoUnit;
+
+public enum ActivityGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    ActivityGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+}
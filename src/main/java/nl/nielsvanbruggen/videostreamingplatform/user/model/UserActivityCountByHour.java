@@ -1,8 +0,0 @@
-package nl.nielsvanbruggen.videostreamingplatform.user.model;
-
-import java.time.Instant;
-
-public interface UserActivityCountByHour {
-    Instant getTimestamp();
-    Long getUserCount();
-}
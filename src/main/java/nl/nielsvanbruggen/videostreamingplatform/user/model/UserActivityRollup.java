@@ -0,0 +1,27 @@
+package nl.nielsvanbruggen.videostreamingplatform.user.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.user.repository.UserActivityRollupId;
+
+import java.time.Instant;
+
+// Distinct active users per hour or day, kept up to date whenever activity is written.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(UserActivityRollupId.class)
+public class UserActivityRollup {
+    @Id
+    @Enumerated(EnumType.STRING)
+    private ActivityGranularity granularity;
+    @Id
+    private Instant bucket;
+    @Column(name = "user_count")
+    private long userCount;
+}
@@ -0,0 +1,21 @@
+package nl.nielsvanbruggen.videostreamingplatform.user.model;
+
+// What the principal cache keeps of a user, enough to authorize a request without its credentials.
+public record UserPrincipal(
+        long id,
+        String username,
+        Role role
+) {
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    // Detached and without credentials, only usable to reference the user.
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .role(role)
+                .build();
+    }
+}
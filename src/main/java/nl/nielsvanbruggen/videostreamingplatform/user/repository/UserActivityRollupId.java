@@ -0,0 +1,17 @@
+package nl.nielsvanbruggen.videostreamingplatform.user.repository;
+
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.user.model.ActivityGranularity;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@Embeddable
+public class UserActivityRollupId implements Serializable {
+    private ActivityGranularity granularity;
+    private Instant bucket;
+}
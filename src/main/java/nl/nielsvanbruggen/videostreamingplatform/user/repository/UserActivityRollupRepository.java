@@ -0,0 +1,12 @@
+package nl.nielsvanbruggen.videostreamingplatform.user.repository;
+
+import nl.nielsvanbruggen.videostreamingplatform.user.model.ActivityGranularity;
+import nl.nielsvanbruggen.videostreamingplatform.user.model.UserActivityRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface UserActivityRollupRepository extends JpaRepository<UserActivityRollup, UserActivityRollupId> {
+    List<UserActivityRollup> findAllByGranularityAndBucketBetweenOrderByBucketDesc(ActivityGranularity granularity, Instant from, Instant to);
+}
@@ -1,56 +1,142 @@
 package nl.nielsvanbruggen.videostreamingplatform.user.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import nl.nielsvanbruggen.videostreamingplatform.user.dto.UserActivityCountByHourMapper;
-import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
-import nl.nielsvanbruggen.videostreamingplatform.user.model.UserActivity;
 import nl.nielsvanbruggen.videostreamingplatform.user.dto.UserActivityCountByHourDTO;
-import nl.nielsvanbruggen.videostreamingplatform.user.repository.UserActivityRepository;
-import nl.nielsvanbruggen.videostreamingplatform.user.repository.UserRepository;
+import nl.nielsvanbruggen.videostreamingplatform.user.model.ActivityGranularity;
+import nl.nielsvanbruggen.videostreamingplatform.user.repository.UserActivityRollupRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+// Activity is only kept in memory on requests, the last activity per user is written in
+// two batches per interval: the last active time and an activity row. The hourly and daily
+// rollups of the buckets just written are recounted right after, so reading them stays cheap.
+// All of it is one transaction, so activity that is retried after a failure is never counted twice.
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserActivityService {
-    private final UserRepository userRepository;
-    private final UserService userService;
-    private final UserActivityRepository userActivityRepository;
+    private static final String UPDATE_LAST_ACTIVE = "UPDATE _user SET last_active_at = ? " +
+            "WHERE username = ? " +
+            "AND (last_active_at IS NULL OR last_active_at < ?)";
+    private static final String INSERT_ACTIVITY = "INSERT INTO user_activity (created_at, user_id) " +
+            "SELECT ?, id FROM _user WHERE username = ?";
+    private static final String UPSERT_ROLLUP = "INSERT INTO user_activity_rollup (granularity, bucket, user_count) " +
+            "SELECT ?, ?, COUNT(DISTINCT user_id) FROM user_activity WHERE created_at >= ? AND created_at < ? " +
+            "ON CONFLICT (granularity, bucket) DO UPDATE SET user_count = EXCLUDED.user_count";
+    private static final String BACKFILL_ROLLUP = "INSERT INTO user_activity_rollup (granularity, bucket, user_count) " +
+            "SELECT ?, DATE_TRUNC(?, created_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC', COUNT(DISTINCT user_id) " +
+            "FROM user_activity " +
+            "GROUP BY 2 " +
+            "ON CONFLICT (granularity, bucket) DO NOTHING";
+    private static final String DELETE_ACTIVITY = "DELETE FROM user_activity WHERE created_at < ?";
+    private static final String DELETE_ROLLUP = "DELETE FROM user_activity_rollup WHERE granularity = ? AND bucket < ?";
+    // Raw rows are only needed to recount the current buckets, hourly rollups are downsampled to days.
+    private static final Duration ACTIVITY_RETENTION = Duration.ofDays(7);
+    private static final Duration HOURLY_RETENTION = Duration.ofDays(90);
+    private static final Map<ActivityGranularity, Duration> DEFAULT_RANGES = Map.of(
+            ActivityGranularity.HOUR, Duration.ofDays(7),
+            ActivityGranularity.DAY, Duration.ofDays(365));
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserActivityRollupRepository userActivityRollupRepository;
     private final UserActivityCountByHourMapper userActivityCountByHourMapper;
-    private final static Map<String, Instant> userActivity = new ConcurrentHashMap<>();
+    private final Map<String, Long> userActivity = new ConcurrentHashMap<>();
 
     @Scheduled(cron = "0 0/15 * 1/1 * *")
     public void persistUserActivity() {
-        userActivity.forEach((userName, timestamp) -> {
-            if(timestamp.isAfter(Instant.now().minus(15, ChronoUnit.MINUTES))) {
-                User user = userService.getUser(userName);
-                UserActivity userActivity = UserActivity.builder()
-                        .user(user)
-                        .createdAt(Instant.now())
-                        .build();
-                userActivityRepository.save(userActivity);
-            }
+        Map<String, Instant> active = new HashMap<>();
+        userActivity.keySet().forEach(username -> {
+            Long lastActiveAt = userActivity.remove(username);
+            if(lastActiveAt != null) active.put(username, Instant.ofEpochMilli(lastActiveAt));
         });
+        if(active.isEmpty()) return;
+
+        Timestamp createdAt = Timestamp.from(Instant.now());
+        List<Object[]> lastActiveArgs = new ArrayList<>(active.size());
+        List<Object[]> activityArgs = new ArrayList<>(active.size());
+        active.forEach((username, lastActiveAt) -> {
+            Timestamp timestamp = Timestamp.from(lastActiveAt);
+            lastActiveArgs.add(new Object[] {timestamp, username, timestamp});
+            activityArgs.add(new Object[] {createdAt, username});
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_LAST_ACTIVE, lastActiveArgs);
+                jdbcTemplate.batchUpdate(INSERT_ACTIVITY, activityArgs);
+                updateRollups(createdAt.toInstant());
+            });
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Could not write activity of {} users, retrying on the next interval.", active.size(), ex);
+            active.forEach((username, lastActiveAt) -> recordUserActivity(username, lastActiveAt.toEpochMilli()));
+        }
     }
 
-    public void recordUserActivity(Authentication authentication) {
-        userActivity.put(authentication.getName(), Instant.now());
+    @PreDestroy
+    public void persistOnShutdown() {
+        persistUserActivity();
+    }
 
-        User user = userService.getUser(authentication.getName());
-        user.setLastActiveAt(Instant.now());
-        userRepository.save(user);
+    public void recordUserActivity(Authentication authentication) {
+        recordUserActivity(authentication.getName(), System.currentTimeMillis());
     }
 
-    public List<UserActivityCountByHourDTO> getAllUserActivity() {
-        return userActivityRepository.allUserActivityCountByHour().stream()
+    public List<UserActivityCountByHourDTO> getUserActivity(Instant from, Instant to, ActivityGranularity granularity) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(DEFAULT_RANGES.get(granularity)) : from;
+        if(start.isAfter(end)) throw new IllegalArgumentException("From has to be before to.");
+
+        return userActivityRollupRepository.findAllByGranularityAndBucketBetweenOrderByBucketDesc(granularity, start, end).stream()
                 .map(userActivityCountByHourMapper)
                 .toList();
     }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void applyRetention() {
+        Instant now = Instant.now();
+        int activity = jdbcTemplate.update(DELETE_ACTIVITY, Timestamp.from(now.minus(ACTIVITY_RETENTION)));
+        int hourly = jdbcTemplate.update(DELETE_ROLLUP, ActivityGranularity.HOUR.name(), Timestamp.from(now.minus(HOURLY_RETENTION)));
+        log.info("Removed {} activity rows and {} hourly activity rollups past retention.", activity, hourly);
+    }
+
+    // Activity written before the rollups existed is counted once.
+    @EventListener(ApplicationReadyEvent.class)
+    public void initRollups() {
+        if(userActivityRollupRepository.count() != 0) return;
+
+        for(ActivityGranularity granularity: ActivityGranularity.values()) {
+            jdbcTemplate.update(BACKFILL_ROLLUP, granularity.name(), granularity.name().toLowerCase());
+        }
+    }
+
+    private void updateRollups(Instant createdAt) {
+        for(ActivityGranularity granularity: ActivityGranularity.values()) {
+            Instant bucket = createdAt.truncatedTo(granularity.getUnit());
+            jdbcTemplate.update(UPSERT_ROLLUP,
+                    granularity.name(),
+                    Timestamp.from(bucket),
+                    Timestamp.from(bucket),
+                    Timestamp.from(bucket.plus(1, granularity.getUnit())));
+        }
+    }
+
+    private void recordUserActivity(String username, long lastActiveAt) {
+        userActivity.merge(username, lastActiveAt, Math::max);
+    }
 }
@@ -0,0 +1,50 @@
+package nl.nielsvanbruggen.videostreamingplatform.user.service;
+
+import lombok.RequiredArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.CacheNames;
+import nl.nielsvanbruggen.videostreamingplatform.user.exception.UserNotFoundException;
+import nl.nielsvanbruggen.videostreamingplatform.user.model.UserPrincipal;
+import nl.nielsvanbruggen.videostreamingplatform.user.repository.UserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Users as authenticated by a token, cached so a request doesn't load its user again.
+// Evicted whenever the role, password or existence of the user changes.
+@Service
+@RequiredArgsConstructor
+public class UserPrincipalService {
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(value = CacheNames.PRINCIPAL, key = "#username")
+    public UserPrincipal getPrincipal(String username) {
+        return userRepository.findByUsername(username)
+                .map(UserPrincipal::of)
+                .orElseThrow(() -> new UserNotFoundException("User with name: " + username + " does not exist."));
+    }
+
+    // Within a transaction the entry is evicted after commit, as a request running
+    // before that would otherwise cache the unchanged user again.
+    public void evict(String username) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(username);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictNow(username);
+            }
+        });
+    }
+
+    private void evictNow(String username) {
+        Cache cache = cacheManager.getCache(CacheNames.PRINCIPAL);
+        if(cache != null) cache.evict(username);
+    }
+}
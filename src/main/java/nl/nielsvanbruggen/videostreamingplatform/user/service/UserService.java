@@ -27,6 +27,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserDTOMapper userDTOMapper;
+    private final UserPrincipalService userPrincipalService;
 
     public User getUser(Long id) {
         return userRepository.findById(id)
@@ -38,6 +39,12 @@ public class UserService {
                 .orElseThrow(() -> new UserNotFoundException("User with name: " + username + " does not exist."));
     }
 
+    // The principal set by JwtAuthenticationFilter, only looked up when authenticated otherwise.
+    public User getUser(Authentication authentication) {
+        if(authentication.getPrincipal() instanceof User user) return user;
+        return getUser(authentication.getName());
+    }
+
     public List<UserDTO> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(userDTOMapper)
@@ -58,6 +65,7 @@ public class UserService {
         if(request.getPassword() != null) user.setPassword(passwordEncoder.encode(request.getPassword()));
 
         userRepository.save(user);
+        userPrincipalService.evict(user.getUsername());
     }
 
     @Transactional
@@ -71,5 +79,6 @@ public class UserService {
         User user =  userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User does not exist"));
         userRepository.delete(user);
+        userPrincipalService.evict(username);
     }
 }
@@ -1,10 +1,12 @@
 package nl.nielsvanbruggen.videostreamingplatform.video.dto;
 
+import java.io.Serializable;
+
 public record SubtitleDTO(
         long id,
         String label,
         String srcLang,
         boolean defaultSub,
         long videoId
-) {
+) implements Serializable {
 }
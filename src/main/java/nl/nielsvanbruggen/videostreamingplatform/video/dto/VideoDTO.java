@@ -1,5 +1,6 @@
 package nl.nielsvanbruggen.videostreamingplatform.video.dto;
 
+import java.io.Serializable;
 import java.util.List;
 public record VideoDTO(
         long id,
@@ -7,7 +8,8 @@ public record VideoDTO(
         double duration,
         int index,
         int season,
+        String placeholder,
         List<SubtitleDTO> subtitles
-) {
+) implements Serializable {
 
 }
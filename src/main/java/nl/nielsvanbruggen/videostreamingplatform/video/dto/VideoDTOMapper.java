@@ -1,10 +1,12 @@
 package nl.nielsvanbruggen.videostreamingplatform.video.dto;
 
 import lombok.RequiredArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.video.model.Subtitle;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
 import nl.nielsvanbruggen.videostreamingplatform.video.repository.SubtitleRepository;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -16,13 +18,18 @@ public class VideoDTOMapper implements Function<Video, VideoDTO> {
 
     @Override
     public VideoDTO apply(Video video) {
+        return apply(video, subtitleRepository.findAllByVideo(video));
+    }
+
+    public VideoDTO apply(Video video, List<Subtitle> subtitles) {
         return new VideoDTO(
                 video.getId(),
                 video.getName(),
                 video.getDuration(),
                 video.getIndex(),
                 video.getSeason(),
-                subtitleRepository.findAllByVideo(video).stream()
+                video.getPlaceholder(),
+                subtitles.stream()
                         .map(subtitleDTOMapper)
                         .collect(Collectors.toList())
         );
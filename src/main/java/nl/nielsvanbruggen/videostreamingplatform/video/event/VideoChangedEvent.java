@@ -0,0 +1,7 @@
+package nl.nielsvanbruggen.videostreamingplatform.video.event;
+
+// Published when the duration, snapshot or placeholder of a video of the media changed.
+public record VideoChangedEvent(
+        long mediaId
+) {
+}
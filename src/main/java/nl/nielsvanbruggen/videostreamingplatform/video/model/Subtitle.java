@@ -13,7 +13,8 @@ import lombok.NoArgsConstructor;
 @Entity
 public class Subtitle {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subtitle_seq")
+    @SequenceGenerator(name = "subtitle_seq", sequenceName = "subtitle_seq", allocationSize = 50)
     long id;
     private String label;
     private String srcLang;
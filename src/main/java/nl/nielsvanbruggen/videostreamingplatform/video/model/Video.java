@@ -13,8 +13,10 @@ import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 @AllArgsConstructor
 @Entity
 public class Video {
+    // Ids are taken from the sequence in blocks, so batched inserts don't wait on the sequence per row.
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "video_seq")
+    @SequenceGenerator(name = "video_seq", sequenceName = "video_seq", allocationSize = 50)
     private long id;
     private String name;
     private String path;
@@ -23,6 +25,8 @@ public class Video {
     private double duration;
     private int season;
     private String snapshot;
+    // BlurHash of the snapshot.
+    private String placeholder;
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "media_id")
     private Media media;
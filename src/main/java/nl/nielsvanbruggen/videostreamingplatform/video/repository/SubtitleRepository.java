@@ -2,12 +2,20 @@ package nl.nielsvanbruggen.videostreamingplatform.video.repository;
 
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Subtitle;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SubtitleRepository extends CrudRepository<Subtitle, Long> {
     List<Subtitle> findAllByVideo(Video video);
+
+    @Query("SELECT s " +
+            "FROM Subtitle s " +
+            "INNER JOIN FETCH s.video " +
+            "WHERE s.video IN :videos")
+    List<Subtitle> findAllByVideoIn(Collection<Video> videos);
     void deleteAllByVideo(Video video);
     List<Subtitle> deleteByVideoIn(List<Video> videos);
 }
@@ -1,10 +1,12 @@
 package nl.nielsvanbruggen.videostreamingplatform.video.repository;
 
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaCountView;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +21,31 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
             "FROM Video v " +
             "WHERE v.media = :media")
     int countByMedia(Media media);
+
+    @Query("SELECT DISTINCT v.media.id " +
+            "FROM Video v")
+    List<Long> findAllMediaIds();
+
+    @Query("SELECT v.media.id AS mediaId, COUNT(v) AS count " +
+            "FROM Video v " +
+            "WHERE v.media.id IN :mediaIds " +
+            "GROUP BY v.media.id")
+    List<MediaCountView> countAllByMediaIdIn(Collection<Long> mediaIds);
+
+    @Query("SELECT v " +
+            "FROM Video v " +
+            "WHERE v.id IN (" +
+            "   SELECT MIN(v2.id) " +
+            "   FROM Video v2 " +
+            "   WHERE v2.media.id IN :mediaIds " +
+            "   GROUP BY v2.media.id)")
+    List<Video> findAllFirstByMediaIdIn(Collection<Long> mediaIds);
+
+    // Returns [Video, Subtitle] rows, with a null subtitle for videos without subtitles.
+    @Query("SELECT v, s " +
+            "FROM Video v " +
+            "LEFT JOIN Subtitle s ON s.video = v " +
+            "WHERE v.media.id = :mediaId " +
+            "ORDER BY v.id")
+    List<Object[]> findAllWithSubtitlesByMediaId(long mediaId);
 }
@@ -1,13 +1,21 @@
 package nl.nielsvanbruggen.videostreamingplatform.video.service;
 
 import com.sun.jdi.InternalException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import net.bramp.ffmpeg.FFmpeg;
 import net.bramp.ffmpeg.FFprobe;
 import net.bramp.ffmpeg.builder.FFmpegBuilder;
 import nl.nielsvanbruggen.videostreamingplatform.config.EnvironmentProperties;
 import nl.nielsvanbruggen.videostreamingplatform.global.exception.ResourceNotFoundException;
+import nl.nielsvanbruggen.videostreamingplatform.global.service.ImageService;
+import nl.nielsvanbruggen.videostreamingplatform.global.util.ImageVariantUtil;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
+import nl.nielsvanbruggen.videostreamingplatform.video.event.VideoChangedEvent;
 import nl.nielsvanbruggen.videostreamingplatform.video.exception.VideoException;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Subtitle;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
@@ -15,8 +23,11 @@ import nl.nielsvanbruggen.videostreamingplatform.video.repository.SubtitleReposi
 import nl.nielsvanbruggen.videostreamingplatform.video.repository.VideoRepository;
 import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
@@ -30,6 +41,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class VideoService {
@@ -37,6 +49,15 @@ public class VideoService {
     private final VideoRepository videoRepository;
     private final SubtitleRepository subtitleRepository;
     private final EnvironmentProperties env;
+    private final MeterRegistry meterRegistry;
+    private final ImageService imageService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Exposes the queued snapshot jobs as executor.queued{name="ffmpeg"}.
+    @PostConstruct
+    public void initMetrics() {
+        new ExecutorServiceMetrics(executorService, "ffmpeg", Tags.empty()).bindTo(meterRegistry);
+    }
 
     public Video getVideo(long videoId) {
         return videoRepository.findById(videoId)
@@ -111,10 +132,11 @@ public class VideoService {
             video.setDuration(duration);
 
             final int screenshotAtTime = (int) duration / 10;
+            final Path snapshotPath = Path.of(env.getSnapshot().get("root") + video.getName() + ".jpg");
             ffmpeg.run(new FFmpegBuilder()
                     .setStartOffset(screenshotAtTime, TimeUnit.SECONDS)
                     .setInput(videoPath.toString())
-                    .addOutput(env.getSnapshot().get("root") + video.getName() + ".jpg")
+                    .addOutput(snapshotPath.toString())
                     .setFrames(1)
                     .setVideoFilter("scale=1000:-1")
                     .setVideoCodec("mjpeg")
@@ -123,12 +145,39 @@ public class VideoService {
             );
             video.setSnapshot(video.getName() + ".jpg");
 
+            saveSnapshotVariants(video, snapshotPath);
+
             videoRepository.save(video);
+            // The media detail was cached before the snapshot job finished.
+            eventPublisher.publishEvent(new VideoChangedEvent(video.getMedia().getId()));
         } catch (IOException ex) {
             throw new InternalException(ex.getMessage());
         }
     }
 
+    // Variants and placeholder are optional, failing to create them keeps the duration and snapshot.
+    private void saveSnapshotVariants(Video video, Path snapshotPath) {
+        BufferedImage snapshot;
+        try {
+            snapshot = ImageIO.read(snapshotPath.toFile());
+        } catch (IOException ex) {
+            log.warn("Could not read snapshot {}: {}", snapshotPath, ex.getMessage());
+            return;
+        }
+        if(snapshot == null) return;
+
+        try {
+            imageService.saveVariants(snapshot, snapshotPath, ImageVariantUtil.SNAPSHOT_WIDTHS);
+        } catch (IOException ex) {
+            log.warn("Could not save variants of snapshot {}: {}", snapshotPath, ex.getMessage());
+        }
+        try {
+            video.setPlaceholder(imageService.createPlaceholder(snapshot));
+        } catch (RuntimeException ex) {
+            log.warn("Could not create placeholder of snapshot {}: {}", snapshotPath, ex.getMessage());
+        }
+    }
+
     private void persistSubtitles(Video video, Path videoPath, List<Path> subtitles) {
         List<Subtitle> subs = subtitles.stream()
                 .filter(subtitle -> subtitle.toString().split("_")[0]
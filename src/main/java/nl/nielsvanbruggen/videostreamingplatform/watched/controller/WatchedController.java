@@ -22,7 +22,7 @@ public class WatchedController {
 
     @GetMapping
     public ResponseEntity<WatchedGetResponse> getAllWatched(Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         WatchedGetResponse response = WatchedGetResponse.builder()
                 .allWatched(watchedService.getAllWatched(user))
@@ -33,10 +33,11 @@ public class WatchedController {
 
     @PostMapping
     public ResponseEntity<?> postWatched(@Valid @RequestBody WatchedPostRequest watchedPostRequest, Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
         Video video = videoService.getVideo(watchedPostRequest.getId());
 
         watchedService.postWatched(user, video, watchedPostRequest.getTimestamp());
+        if(watchedPostRequest.isEnded()) watchedService.endSession(user);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 }
@@ -8,4 +8,6 @@ public class WatchedPostRequest {
     Long id;
     @NotNull
     Float timestamp;
+    // Set by the player when playback stops, writes the position right away.
+    boolean ended;
 }
@@ -0,0 +1,9 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.dto;
+
+import java.time.Instant;
+
+public interface WatchHistoryView {
+    Long getUserId();
+    Long getMediaId();
+    Instant getWatchedAt();
+}
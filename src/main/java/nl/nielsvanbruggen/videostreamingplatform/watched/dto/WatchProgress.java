@@ -0,0 +1,10 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.dto;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+
+public record WatchProgress(
+        long userId,
+        WatchedDTO watched,
+        Type type
+) {
+}
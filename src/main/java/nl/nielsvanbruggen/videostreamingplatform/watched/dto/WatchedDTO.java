@@ -1,5 +1,6 @@
 package nl.nielsvanbruggen.videostreamingplatform.watched.dto;
 
+import java.io.Serializable;
 import java.time.Instant;
 
 public record WatchedDTO(
@@ -11,5 +12,5 @@ public record WatchedDTO(
         long mediaId,
         Instant updatedAt,
         double duration
-) {
+) implements Serializable {
 }
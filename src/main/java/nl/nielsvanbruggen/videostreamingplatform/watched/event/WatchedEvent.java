@@ -0,0 +1,16 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.event;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+
+import java.time.Instant;
+
+public record WatchedEvent(
+        long userId,
+        long videoId,
+        long mediaId,
+        Type type,
+        boolean firstView,
+        double progress,
+        Instant watchedAt
+) {
+}
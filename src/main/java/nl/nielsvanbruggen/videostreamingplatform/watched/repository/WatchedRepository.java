@@ -1,7 +1,9 @@
 package nl.nielsvanbruggen.videostreamingplatform.watched.repository;
 
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaCountView;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
+import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchHistoryView;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
 import nl.nielsvanbruggen.videostreamingplatform.watched.model.Watched;
 import nl.nielsvanbruggen.videostreamingplatform.watched.id.WatchedId;
@@ -11,14 +13,12 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface WatchedRepository extends JpaRepository<Watched, WatchedId> {
     List<Watched> findAllByUser(User user);
 
-    Optional<Watched> findByUserAndVideo(User user, Video video);
-
     @Query("SELECT COUNT(DISTINCT user.id) " +
             "FROM Watched w " +
             "INNER JOIN Video v ON w.video.id = v.id " +
@@ -26,6 +26,13 @@ public interface WatchedRepository extends JpaRepository<Watched, WatchedId> {
             "WHERE m = :media")
     int totalUniqueViewsByMedia(@Param("media") Media media);
 
+    @Query("SELECT v.media.id AS mediaId, COUNT(DISTINCT w.user.id) AS count " +
+            "FROM Watched w " +
+            "INNER JOIN w.video v " +
+            "WHERE v.media.id IN :mediaIds " +
+            "GROUP BY v.media.id")
+    List<MediaCountView> totalUniqueViewsByMediaIdIn(Collection<Long> mediaIds);
+
     @Query("SELECT w " +
             "FROM Watched w " +
             "WHERE w.user = :user " +
@@ -65,4 +72,11 @@ public interface WatchedRepository extends JpaRepository<Watched, WatchedId> {
             "INNER JOIN Video v ON w.video = v " +
             "WHERE w.user = :user")
     int countAllNotWatchedByUser(User user);
+
+    @Query("SELECT w.user.id AS userId, v.media.id AS mediaId, MAX(w.updatedAt) AS watchedAt " +
+            "FROM Watched w " +
+            "INNER JOIN w.video v " +
+            "GROUP BY w.user.id, v.media.id " +
+            "ORDER BY MAX(w.updatedAt) ASC")
+    List<WatchHistoryView> findWatchHistory();
 }
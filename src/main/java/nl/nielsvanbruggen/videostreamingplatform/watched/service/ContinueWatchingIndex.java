@@ -0,0 +1,301 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+import nl.nielsvanbruggen.videostreamingplatform.watched.event.WatchedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Last watched position per media for each user, most recent first. A media counts as in
+// progress while its last watched video is below the finished threshold.
+// Each node only sees the watches it recorded itself, so the progress written since the last
+// sync is read back every minute, and entries of deleted media are dropped.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContinueWatchingIndex {
+    public static final double FINISHED_THRESHOLD = 0.95;
+    static final int MAX_ENTRIES = 100;
+    static final int MAX_EVICTED = 400;
+    // Progress is written by the buffers of all nodes, some seconds after it was watched.
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+    // The latest watched video per user and media, the most recent media of each user only.
+    private static final String LOAD = "SELECT user_id, media_id, type, timestamp, duration, updated_at, media_count " +
+            "FROM (" +
+            "   SELECT latest.*, " +
+            "       ROW_NUMBER() OVER (PARTITION BY latest.user_id ORDER BY latest.updated_at DESC) AS position, " +
+            "       COUNT(*) OVER (PARTITION BY latest.user_id) AS media_count " +
+            "   FROM (" +
+            "       SELECT DISTINCT ON (w.user_id, v.media_id) w.user_id, v.media_id, m.type, w.timestamp, v.duration, w.updated_at " +
+            "       FROM watched w " +
+            "       INNER JOIN video v ON v.id = w.video_id " +
+            "       INNER JOIN media m ON m.id = v.media_id " +
+            "       ORDER BY w.user_id, v.media_id, w.updated_at DESC" +
+            "   ) latest" +
+            ") ranked " +
+            "WHERE position <= ? " +
+            "ORDER BY updated_at ASC";
+    private static final String SYNC = "SELECT w.user_id, v.media_id, m.type, w.timestamp, v.duration, w.updated_at " +
+            "FROM watched w " +
+            "INNER JOIN video v ON v.id = w.video_id " +
+            "INNER JOIN media m ON m.id = v.media_id " +
+            "WHERE w.updated_at > ? " +
+            "ORDER BY w.updated_at ASC";
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, UserEntries> entries = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private Instant lastSync;
+
+    public static double getProgress(double timestamp, double duration) {
+        return duration > 0 ? timestamp / duration : 0;
+    }
+
+    // Empty until loaded, or when the page reaches past the media kept for the user.
+    public Optional<Result> getInProgress(long userId, String type, int offset, int limit) {
+        if(!loaded) return Optional.empty();
+
+        UserEntries userEntries = entries.get(userId);
+        if(userEntries == null) return Optional.of(new Result(new long[0], 0));
+        return userEntries.getInProgress(type, offset, limit);
+    }
+
+    // Until loaded the rail is answered from the database.
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndex() {
+        CompletableFuture.runAsync(this::load)
+                .exceptionally(ex -> {
+                    log.error("Loading continue watching failed.", ex);
+                    return null;
+                });
+    }
+
+    // Users with more media than fit are only answered from the database.
+    public synchronized void load() {
+        long start = System.nanoTime();
+        Instant syncFrom = Instant.now();
+        jdbcTemplate.query(LOAD, (RowCallbackHandler) row -> {
+            UserEntries userEntries = update(row.getLong("user_id"),
+                    row.getLong("media_id"),
+                    Type.valueOf(row.getString("type")),
+                    getProgress(row.getDouble("timestamp"), row.getDouble("duration")),
+                    row.getTimestamp("updated_at").getTime());
+            if(row.getLong("media_count") > MAX_ENTRIES + MAX_EVICTED) userEntries.overflow();
+        }, MAX_ENTRIES + MAX_EVICTED);
+        lastSync = syncFrom;
+        loaded = true;
+        log.info("Loaded continue watching for {} users in {} ms.", entries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public synchronized void sync() {
+        if(!loaded) return;
+
+        Instant syncFrom = Instant.now();
+        jdbcTemplate.query(SYNC, (RowCallbackHandler) row -> update(row.getLong("user_id"),
+                row.getLong("media_id"),
+                Type.valueOf(row.getString("type")),
+                getProgress(row.getDouble("timestamp"), row.getDouble("duration")),
+                row.getTimestamp("updated_at").getTime()), Timestamp.from(lastSync.minus(SYNC_OVERLAP)));
+        lastSync = syncFrom;
+
+        Set<Long> mediaIds = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM media", Long.class));
+        entries.values().forEach(userEntries -> userEntries.retain(mediaIds));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWatched(WatchedEvent event) {
+        update(event.userId(), event.mediaId(), event.type(), event.progress(), event.watchedAt().toEpochMilli());
+    }
+
+    private UserEntries update(long userId, long mediaId, Type type, double progress, long watchedAt) {
+        UserEntries userEntries = entries.computeIfAbsent(userId, id -> new UserEntries());
+        userEntries.update(mediaId, type, progress < FINISHED_THRESHOLD, watchedAt);
+        return userEntries;
+    }
+
+    public record Result(long[] mediaIds, long total) {}
+
+    // Parallel arrays ordered by watched at, newest first. Small enough that a linear scan
+    // to find a media is cheaper than keeping a map next to it. Up to MAX_EVICTED media pushed
+    // out of the window are kept unordered, so the total still counts them. Once more media
+    // were pushed out the total is unknown and the user is answered from the database.
+    static class UserEntries {
+        private final long[] mediaIds = new long[MAX_ENTRIES];
+        private final long[] watchedAt = new long[MAX_ENTRIES];
+        private final Type[] types = new Type[MAX_ENTRIES];
+        private final boolean[] inProgress = new boolean[MAX_ENTRIES];
+        private int size;
+        private final Evicted evicted = new Evicted();
+        private boolean overflowed;
+
+        synchronized void update(long mediaId, Type type, boolean mediaInProgress, long mediaWatchedAt) {
+            int position = indexOf(mediaId);
+            if(position != -1) {
+                if(watchedAt[position] > mediaWatchedAt) return;
+                remove(position);
+            } else {
+                int evictedPosition = evicted.indexOf(mediaId);
+                if(evictedPosition != -1) {
+                    if(evicted.watchedAt[evictedPosition] > mediaWatchedAt) return;
+                    evicted.remove(evictedPosition);
+                }
+            }
+
+            int insertAt = 0;
+            while(insertAt < size && watchedAt[insertAt] > mediaWatchedAt) insertAt++;
+            if(insertAt == MAX_ENTRIES) {
+                evict(mediaId, type, mediaInProgress, mediaWatchedAt);
+                return;
+            }
+            if(size == MAX_ENTRIES) {
+                size--;
+                evict(mediaIds[size], types[size], inProgress[size], watchedAt[size]);
+            }
+
+            shift(insertAt, insertAt + 1, size - insertAt);
+            mediaIds[insertAt] = mediaId;
+            watchedAt[insertAt] = mediaWatchedAt;
+            types[insertAt] = type;
+            inProgress[insertAt] = mediaInProgress;
+            size++;
+        }
+
+        synchronized Optional<Result> getInProgress(String type, int offset, int limit) {
+            if(overflowed) return Optional.empty();
+
+            long[] page = new long[limit];
+            int found = 0;
+            int total = 0;
+            for(int i = 0; i < size; i++) {
+                if(!inProgress[i] || !matches(types[i], type)) continue;
+                if(total >= offset && found < limit) page[found++] = mediaIds[i];
+                total++;
+            }
+            int evictedTotal = evicted.countInProgress(type);
+            // The order of media pushed out of the window is only known by the database.
+            if(evictedTotal > 0 && found < limit) return Optional.empty();
+            total += evictedTotal;
+            return Optional.of(new Result(Arrays.copyOf(page, found), total));
+        }
+
+        synchronized void overflow() {
+            overflowed = true;
+            evicted.clear();
+        }
+
+        synchronized void retain(Set<Long> mediaIds) {
+            for(int i = size - 1; i >= 0; i--) {
+                if(!mediaIds.contains(this.mediaIds[i])) remove(i);
+            }
+            for(int i = evicted.size - 1; i >= 0; i--) {
+                if(!mediaIds.contains(evicted.mediaIds[i])) evicted.remove(i);
+            }
+        }
+
+        private void evict(long mediaId, Type type, boolean mediaInProgress, long mediaWatchedAt) {
+            if(overflowed) return;
+            if(evicted.size == MAX_EVICTED) {
+                overflow();
+                return;
+            }
+            evicted.add(mediaId, type, mediaInProgress, mediaWatchedAt);
+        }
+
+        private static boolean matches(Type mediaType, String type) {
+            return type == null || mediaType.name().contains(type);
+        }
+
+        private int indexOf(long mediaId) {
+            for(int i = 0; i < size; i++) {
+                if(mediaIds[i] == mediaId) return i;
+            }
+            return -1;
+        }
+
+        private void remove(int position) {
+            shift(position + 1, position, size - position - 1);
+            size--;
+        }
+
+        private void shift(int from, int to, int length) {
+            System.arraycopy(mediaIds, from, mediaIds, to, length);
+            System.arraycopy(watchedAt, from, watchedAt, to, length);
+            System.arraycopy(types, from, types, to, length);
+            System.arraycopy(inProgress, from, inProgress, to, length);
+        }
+    }
+
+    // Parallel arrays in no particular order, grown on demand up to MAX_EVICTED.
+    private static class Evicted {
+        private long[] mediaIds = new long[0];
+        private long[] watchedAt = new long[0];
+        private Type[] types = new Type[0];
+        private boolean[] inProgress = new boolean[0];
+        private int size;
+
+        private void add(long mediaId, Type type, boolean mediaInProgress, long mediaWatchedAt) {
+            if(size == mediaIds.length) {
+                int capacity = Math.min(MAX_EVICTED, Math.max(16, size * 2));
+                mediaIds = Arrays.copyOf(mediaIds, capacity);
+                watchedAt = Arrays.copyOf(watchedAt, capacity);
+                types = Arrays.copyOf(types, capacity);
+                inProgress = Arrays.copyOf(inProgress, capacity);
+            }
+            mediaIds[size] = mediaId;
+            watchedAt[size] = mediaWatchedAt;
+            types[size] = type;
+            inProgress[size] = mediaInProgress;
+            size++;
+        }
+
+        // Moves the last entry into the gap.
+        private void remove(int position) {
+            size--;
+            mediaIds[position] = mediaIds[size];
+            watchedAt[position] = watchedAt[size];
+            types[position] = types[size];
+            inProgress[position] = inProgress[size];
+            types[size] = null;
+        }
+
+        private int indexOf(long mediaId) {
+            for(int i = 0; i < size; i++) {
+                if(mediaIds[i] == mediaId) return i;
+            }
+            return -1;
+        }
+
+        private int countInProgress(String type) {
+            int count = 0;
+            for(int i = 0; i < size; i++) {
+                if(inProgress[i] && UserEntries.matches(types[i], type)) count++;
+            }
+            return count;
+        }
+
+        private void clear() {
+            mediaIds = new long[0];
+            watchedAt = new long[0];
+            types = new Type[0];
+            inProgress = new boolean[0];
+            size = 0;
+        }
+    }
+}
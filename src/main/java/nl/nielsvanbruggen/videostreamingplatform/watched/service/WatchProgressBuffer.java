@@ -0,0 +1,120 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.CacheNames;
+import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchProgress;
+import nl.nielsvanbruggen.videostreamingplatform.watched.event.WatchedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Players report their position every few seconds, only the latest position per user and
+// video is kept here and written in batches. Entries stay in the buffer until they are
+// written, so reads merging the buffer never miss a position.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WatchProgressBuffer {
+    private static final int BATCH_SIZE = 500;
+    private static final String UPSERT = "INSERT INTO watched (user_id, video_id, timestamp, created_at, updated_at) " +
+            "VALUES %s " +
+            "ON CONFLICT (user_id, video_id) DO UPDATE " +
+            "SET timestamp = EXCLUDED.timestamp, updated_at = EXCLUDED.updated_at " +
+            "WHERE watched.updated_at <= EXCLUDED.updated_at " +
+            "RETURNING user_id, video_id, (xmax = 0) AS inserted";
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, Map<Long, WatchProgress>> buffer = new ConcurrentHashMap<>();
+
+    public void record(WatchProgress progress) {
+        buffer.compute(progress.userId(), (userId, videos) -> {
+            if(videos == null) videos = new ConcurrentHashMap<>();
+            videos.merge(progress.watched().videoId(), progress, (current, next) ->
+                    next.watched().updatedAt().isBefore(current.watched().updatedAt()) ? current : next);
+            return videos;
+        });
+    }
+
+    public Collection<WatchProgress> getPending(long userId) {
+        Map<Long, WatchProgress> videos = buffer.get(userId);
+        return videos == null ? List.of() : List.copyOf(videos.values());
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void flush() {
+        List<WatchProgress> pending = new ArrayList<>();
+        buffer.values().forEach(videos -> pending.addAll(videos.values()));
+        write(pending);
+    }
+
+    public void flush(long userId) {
+        write(new ArrayList<>(getPending(userId)));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if(!buffer.isEmpty()) {
+            log.error("Shutting down with unwritten watch progress of {} users.", buffer.size());
+        }
+    }
+
+    // Failed batches stay in the buffer and are retried on the next flush.
+    private synchronized void write(List<WatchProgress> pending) {
+        for(int from = 0; from < pending.size(); from += BATCH_SIZE) {
+            List<WatchProgress> batch = pending.subList(from, Math.min(pending.size(), from + BATCH_SIZE));
+            try {
+                writeBatch(batch);
+            } catch (DataAccessException ex) {
+                log.warn("Could not write {} watch progress updates, retrying on the next flush.", batch.size(), ex);
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(List<WatchProgress> batch) {
+        Map<Key, WatchProgress> byKey = new HashMap<>();
+        List<Object> args = new ArrayList<>(batch.size() * 5);
+        batch.forEach(progress -> {
+            Timestamp updatedAt = Timestamp.from(progress.watched().updatedAt());
+            byKey.put(new Key(progress.userId(), progress.watched().videoId()), progress);
+            args.addAll(List.of(progress.userId(), progress.watched().videoId(), progress.watched().timestamp(), updatedAt, updatedAt));
+        });
+
+        String values = String.join(", ", Collections.nCopies(batch.size(), "(?, ?, ?, ?, ?)"));
+        List<WatchedEvent> events = jdbcTemplate.query(UPSERT.formatted(values), (resultSet, row) -> {
+            WatchProgress progress = byKey.get(new Key(resultSet.getLong("user_id"), resultSet.getLong("video_id")));
+            return new WatchedEvent(progress.userId(),
+                    progress.watched().videoId(),
+                    progress.watched().mediaId(),
+                    progress.type(),
+                    resultSet.getBoolean("inserted"),
+                    ContinueWatchingIndex.getProgress(progress.watched().timestamp(), progress.watched().duration()),
+                    progress.watched().updatedAt());
+        }, args.toArray());
+
+        // Evicted before leaving the buffer, so a read always sees either the stored or the pending position.
+        Cache cache = cacheManager.getCache(CacheNames.ALL_WATCHED);
+        batch.forEach(progress -> {
+            if(cache != null) cache.evict(progress.userId());
+            buffer.computeIfPresent(progress.userId(), (userId, videos) -> {
+                videos.remove(progress.watched().videoId(), progress);
+                return videos.isEmpty() ? null : videos;
+            });
+        });
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    private record Key(long userId, long videoId) {}
+}
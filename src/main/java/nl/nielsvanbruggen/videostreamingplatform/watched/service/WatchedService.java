@@ -1,45 +1,64 @@
 package nl.nielsvanbruggen.videostreamingplatform.watched.service;
 
 import lombok.RequiredArgsConstructor;
+import nl.nielsvanbruggen.videostreamingplatform.global.cache.CacheNames;
 import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
-import nl.nielsvanbruggen.videostreamingplatform.watched.model.Watched;
+import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchProgress;
 import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchedDTO;
 import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchedDTOMapper;
 import nl.nielsvanbruggen.videostreamingplatform.watched.repository.WatchedRepository;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.List;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
-@EnableCaching
 public class WatchedService {
     private final WatchedRepository watchedRepository;
     private final WatchedDTOMapper watchedDTOMapper;
+    private final WatchProgressBuffer watchProgressBuffer;
+    private final CacheManager cacheManager;
 
-    @Cacheable(value = "allWatched", key = "#user.getId()")
+    // The stored positions are cached, positions not written yet are merged in on every read.
     public List<WatchedDTO> getAllWatched(User user) {
-        return watchedRepository.findAllByUser(user).stream()
-                .map(watchedDTOMapper)
-                .toList();
+        Map<Long, WatchedDTO> allWatched = new LinkedHashMap<>();
+        getAllStoredWatched(user).forEach(watched -> allWatched.put(watched.videoId(), watched));
+        watchProgressBuffer.getPending(user.getId()).forEach(progress -> allWatched.merge(progress.watched().videoId(),
+                progress.watched(),
+                (stored, pending) -> pending.updatedAt().isBefore(stored.updatedAt()) ? stored : pending));
+        return new ArrayList<>(allWatched.values());
     }
 
-    @CacheEvict(value = "allWatched", key = "#user.getId()")
     public void postWatched(User user, Video video, float timestamp) {
-        Watched watched = watchedRepository.findByUserAndVideo(user, video)
-                .orElseGet(() -> Watched.builder()
-                        .user(user)
-                        .video(video)
-                        .createdAt(Instant.now())
-                        .build());
-        watched.setUpdatedAt(Instant.now());
-        watched.setTimestamp(timestamp);
-
-        watchedRepository.save(watched);
+        WatchedDTO watched = new WatchedDTO(
+                video.getId(),
+                video.getName(),
+                video.getIndex(),
+                video.getSeason(),
+                timestamp,
+                video.getMedia().getId(),
+                Instant.now(),
+                video.getDuration());
+        watchProgressBuffer.record(new WatchProgress(user.getId(), watched, video.getMedia().getType()));
+    }
+
+    public void endSession(User user) {
+        watchProgressBuffer.flush(user.getId());
+    }
+
+    private List<WatchedDTO> getAllStoredWatched(User user) {
+        Cache cache = cacheManager.getCache(CacheNames.ALL_WATCHED);
+        if(cache == null) return loadAllWatched(user);
+        return cache.get(user.getId(), () -> loadAllWatched(user));
+    }
+
+    private List<WatchedDTO> loadAllWatched(User user) {
+        return watchedRepository.findAllByUser(user).stream()
+                .map(watchedDTOMapper)
+                .toList();
     }
 }
@@ -21,7 +21,7 @@ public class WatchlistController {
 
     @GetMapping
     public ResponseEntity<WatchlistGetResponse> getWatchlist(Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
 
         WatchlistGetResponse response = WatchlistGetResponse.builder()
                 .watchlist(watchlistService.getWatchlist(user))
@@ -32,7 +32,7 @@ public class WatchlistController {
 
     @PostMapping
     public ResponseEntity<?> postWatchlist(@RequestBody WatchlistRequest watchlistRequest, Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
         Media media = mediaService.getMedia(watchlistRequest.getId());
 
         watchlistService.postWatchlist(user, media);
@@ -42,7 +42,7 @@ public class WatchlistController {
 
     @DeleteMapping
     public ResponseEntity<String> deleteWatchlist(@RequestBody WatchlistRequest watchlistRequest, Authentication authentication) {
-        User user = userService.getUser(authentication.getName());
+        User user = userService.getUser(authentication);
         Media media = mediaService.getMedia(watchlistRequest.getId());
 
         watchlistService.deleteWatchlist(user, media);
@@ -3,7 +3,7 @@ package nl.nielsvanbruggen.videostreamingplatform.watchlist;
 import lombok.RequiredArgsConstructor;
 import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTO;
 import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTOMapper;
-import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTOSimplifiedMapper;
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaCardMapper;
 import nl.nielsvanbruggen.videostreamingplatform.media.model.Media;
 import nl.nielsvanbruggen.videostreamingplatform.media.repository.MediaRepository;
 import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
@@ -19,14 +19,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class WatchlistService {
     private final WatchlistRepository watchlistRepository;
-    private final MediaDTOSimplifiedMapper mediaDTOSimplifiedMapper;
+    private final MediaCardMapper mediaCardMapper;
 
 
     public List<MediaDTO> getWatchlist(User user) {
-        return watchlistRepository.findAllByUser(user).stream()
+        return mediaCardMapper.apply(watchlistRepository.findAllByUser(user).stream()
                 .map(Watchlist::getMedia)
-                .map(mediaDTOSimplifiedMapper)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public void postWatchlist(User user, Media media) {
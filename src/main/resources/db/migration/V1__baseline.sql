@@ -0,0 +1,205 @@
+-- Schema as Hibernate generated it before migrations, databases created that way are baselined at this version.
+
+CREATE SEQUENCE _user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE actor_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE media_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE media_request_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE refresh_token_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE review_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE subtitle_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ticket_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE video_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE video_token_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE _user (
+    id BIGINT NOT NULL,
+    username VARCHAR(255),
+    email VARCHAR(255),
+    password VARCHAR(255),
+    role VARCHAR(255),
+    last_active_at TIMESTAMP(6) WITH TIME ZONE,
+    last_login_at TIMESTAMP(6) WITH TIME ZONE,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE actor (
+    id BIGINT NOT NULL,
+    firstname VARCHAR(255),
+    lastname VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE genre (
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (name)
+);
+
+CREATE TABLE media (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    thumbnail VARCHAR(255),
+    placeholder VARCHAR(255),
+    trailer VARCHAR(255),
+    plot TEXT,
+    year INTEGER NOT NULL,
+    type VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE media_actor (
+    media_id BIGINT NOT NULL,
+    actor_id BIGINT NOT NULL,
+    PRIMARY KEY (media_id, actor_id),
+    CONSTRAINT fk_media_actor_media FOREIGN KEY (media_id) REFERENCES media,
+    CONSTRAINT fk_media_actor_actor FOREIGN KEY (actor_id) REFERENCES actor
+);
+
+CREATE TABLE media_genre (
+    media_id BIGINT NOT NULL,
+    genre_name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (media_id, genre_name),
+    CONSTRAINT fk_media_genre_media FOREIGN KEY (media_id) REFERENCES media,
+    CONSTRAINT fk_media_genre_genre FOREIGN KEY (genre_name) REFERENCES genre
+);
+
+CREATE TABLE rating (
+    media_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    score FLOAT(53) NOT NULL,
+    PRIMARY KEY (media_id, user_id),
+    CONSTRAINT fk_rating_media FOREIGN KEY (media_id) REFERENCES media,
+    CONSTRAINT fk_rating_user FOREIGN KEY (user_id) REFERENCES _user
+);
+
+CREATE TABLE review (
+    id BIGINT NOT NULL,
+    title VARCHAR(255),
+    comment TEXT,
+    user_id BIGINT,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    media_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_review_user FOREIGN KEY (user_id) REFERENCES _user,
+    CONSTRAINT fk_review_media FOREIGN KEY (media_id) REFERENCES media
+);
+
+CREATE TABLE video (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    path VARCHAR(255),
+    _index INTEGER NOT NULL,
+    duration FLOAT(53) NOT NULL,
+    season INTEGER NOT NULL,
+    snapshot VARCHAR(255),
+    placeholder VARCHAR(255),
+    media_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_video_media FOREIGN KEY (media_id) REFERENCES media
+);
+
+CREATE TABLE subtitle (
+    id BIGINT NOT NULL,
+    label VARCHAR(255),
+    src_lang VARCHAR(255),
+    path VARCHAR(255),
+    default_sub BOOLEAN NOT NULL,
+    video_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_subtitle_video FOREIGN KEY (video_id) REFERENCES video
+);
+
+CREATE TABLE watched (
+    user_id BIGINT NOT NULL,
+    video_id BIGINT NOT NULL,
+    timestamp FLOAT(53) NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (user_id, video_id),
+    CONSTRAINT fk_watched_user FOREIGN KEY (user_id) REFERENCES _user,
+    CONSTRAINT fk_watched_video FOREIGN KEY (video_id) REFERENCES video
+);
+
+CREATE TABLE watchlist (
+    user_id BIGINT NOT NULL,
+    media_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (user_id, media_id),
+    CONSTRAINT fk_watchlist_user FOREIGN KEY (user_id) REFERENCES _user,
+    CONSTRAINT fk_watchlist_media FOREIGN KEY (media_id) REFERENCES media
+);
+
+CREATE TABLE user_activity (
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (created_at, user_id),
+    CONSTRAINT fk_user_activity_user FOREIGN KEY (user_id) REFERENCES _user
+);
+
+CREATE TABLE user_activity_rollup (
+    granularity VARCHAR(255) NOT NULL,
+    bucket TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    user_count BIGINT NOT NULL,
+    PRIMARY KEY (granularity, bucket)
+);
+
+CREATE TABLE refresh_token (
+    id BIGINT NOT NULL,
+    token VARCHAR(255),
+    expiration TIMESTAMP(6) WITH TIME ZONE,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_refresh_token_user FOREIGN KEY (user_id) REFERENCES _user
+);
+
+CREATE TABLE video_token (
+    id BIGINT NOT NULL,
+    token VARCHAR(255),
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    expiration TIMESTAMP(6) WITH TIME ZONE,
+    video_id BIGINT,
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_video_token_video FOREIGN KEY (video_id) REFERENCES video,
+    CONSTRAINT fk_video_token_user FOREIGN KEY (user_id) REFERENCES _user
+);
+
+CREATE TABLE invite_token (
+    token VARCHAR(255) NOT NULL,
+    expiration TIMESTAMP(6) WITH TIME ZONE,
+    used BOOLEAN NOT NULL,
+    master BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    role VARCHAR(255),
+    created_by BIGINT,
+    PRIMARY KEY (token),
+    CONSTRAINT fk_invite_token_created_by FOREIGN KEY (created_by) REFERENCES _user
+);
+
+CREATE TABLE ticket (
+    id BIGINT NOT NULL,
+    title VARCHAR(255),
+    comment TEXT,
+    type VARCHAR(255),
+    resolved BOOLEAN NOT NULL,
+    response TEXT,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    created_by BYTEA,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE media_request (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    year INTEGER NOT NULL,
+    comment VARCHAR(255),
+    status SMALLINT,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    created_by BYTEA,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,31 @@
+-- Continue watching and the recent watched rails read the latest progress of one user.
+CREATE INDEX idx_watched_user_id_updated_at ON watched (user_id, updated_at DESC);
+-- View counts go from the videos of a media to the users that watched them.
+CREATE INDEX idx_watched_video_id_user_id ON watched (video_id, user_id);
+-- Continue watching reads the progress written since its last sync.
+CREATE INDEX idx_watched_updated_at ON watched (updated_at);
+
+-- Episode lists are read per media in index order, the library scan looks videos up by path.
+CREATE INDEX idx_video_media_id_index ON video (media_id, _index);
+CREATE INDEX idx_video_path ON video (path);
+CREATE INDEX idx_subtitle_video_id ON subtitle (video_id);
+
+-- Every streamed chunk and every token refresh looks up its token.
+CREATE INDEX idx_video_token_token ON video_token (token);
+CREATE INDEX idx_video_token_user_id ON video_token (user_id);
+CREATE INDEX idx_refresh_token_token ON refresh_token (token);
+CREATE INDEX idx_refresh_token_user_id ON refresh_token (user_id);
+
+-- Type is matched with LIKE '%' || :type || '%', which no index on type can serve. Paging by
+-- updated_at walks this index and filters the type on the way, stopping once a page is full.
+CREATE INDEX idx_media_updated_at ON media (updated_at DESC);
+CREATE INDEX idx_review_media_id ON review (media_id);
+CREATE INDEX idx_media_actor_actor_id ON media_actor (actor_id);
+CREATE INDEX idx_media_genre_genre_name ON media_genre (genre_name);
+
+-- Ratings per media are served by the primary key (media_id, user_id), removing a user needs the other way around.
+CREATE INDEX idx_rating_user_id ON rating (user_id);
+
+CREATE INDEX idx_ticket_created_by ON ticket (created_by);
+CREATE INDEX idx_invite_token_created_by ON invite_token (created_by);
+CREATE INDEX idx_media_request_created_by ON media_request (created_by);
@@ -0,0 +1,41 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTO;
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonCacheSerializerTest {
+    private final JsonCacheSerializer serializer = new JsonCacheSerializer(new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    public void testPageOfMediaRoundTrips() {
+        MediaDTO media = MediaDTO.builder()
+                .id(1)
+                .name("Media")
+                .type(Type.MOVIE)
+                .updatedAt(Instant.parse("2023-01-01T00:00:00Z"))
+                .genres(List.of("Drama"))
+                .build();
+        Page<MediaDTO> page = new PageImpl<>(List.of(media), PageRequest.of(2, 10), 21);
+
+        assertThat(serializer.deserialize(serializer.serialize(page)))
+                .isEqualTo(page);
+    }
+
+    @Test
+    public void testInvalidationMessageKeepsFilter() {
+        CacheInvalidationMessage message = new CacheInvalidationMessage("node", CacheNames.ALL_MEDIA, null, new MediaEntryFilter(1), false);
+
+        assertThat(serializer.deserialize(serializer.serialize(message)))
+                .isEqualTo(message);
+    }
+}
@@ -0,0 +1,86 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import nl.nielsvanbruggen.videostreamingplatform.media.dto.MediaDTO;
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TwoTierCacheTest {
+    private TwoTierCache firstNode;
+    private TwoTierCache secondNode;
+
+    @BeforeEach
+    public void setUp() {
+        SharedCacheStore sharedStore = new InMemorySharedCacheStore();
+        firstNode = createNode(sharedStore);
+        secondNode = createNode(sharedStore);
+    }
+
+    @Test
+    public void testValueIsSharedBetweenNodes() {
+        firstNode.put(MediaCacheKey.page("MOVIE", 0, 10), "page");
+
+        assertThat(secondNode.get(MediaCacheKey.page("MOVIE", 0, 10)))
+                .isNotNull()
+                .extracting(wrapper -> wrapper.get())
+                .isEqualTo("page");
+    }
+
+    @Test
+    public void testEvictionReachesOtherNodes() {
+        firstNode.put(MediaCacheKey.page("MOVIE", 0, 10), "page");
+        secondNode.get(MediaCacheKey.page("MOVIE", 0, 10));
+
+        firstNode.evict(MediaCacheKey.page("MOVIE", 0, 10));
+
+        assertThat(secondNode.getNativeCache().asMap())
+                .isEmpty();
+        assertThat(secondNode.get(MediaCacheKey.page("MOVIE", 0, 10)))
+                .isNull();
+    }
+
+    @Test
+    public void testEvictionByTypeReachesOtherNodes() {
+        firstNode.put(MediaCacheKey.page("MOVIE", 0, 10), "movies");
+        firstNode.put(MediaCacheKey.page("SERIES", 0, 10), "series");
+        secondNode.get(MediaCacheKey.page("MOVIE", 0, 10));
+        secondNode.get(MediaCacheKey.page("SERIES", 0, 10));
+
+        secondNode.evictIf(new TypeEntryFilter(Type.MOVIE));
+
+        assertThat(firstNode.get(MediaCacheKey.page("MOVIE", 0, 10)))
+                .isNull();
+        assertThat(firstNode.get(MediaCacheKey.page("SERIES", 0, 10)))
+                .isNotNull();
+    }
+
+    @Test
+    public void testEvictionByMediaOnlyReachesPagesWithIt() {
+        firstNode.put(MediaCacheKey.page("MOVIE", 0, 10), new PageImpl<>(List.of(MediaDTO.builder().id(1).build())));
+        firstNode.put(MediaCacheKey.page("MOVIE", 1, 10), new PageImpl<>(List.of(MediaDTO.builder().id(2).build())));
+        secondNode.get(MediaCacheKey.page("MOVIE", 0, 10));
+
+        secondNode.evictIf(new MediaEntryFilter(1));
+
+        assertThat(secondNode.getNativeCache().asMap())
+                .isEmpty();
+        assertThat(firstNode.get(MediaCacheKey.page("MOVIE", 0, 10)))
+                .isNull();
+        assertThat(firstNode.get(MediaCacheKey.page("MOVIE", 1, 10)))
+                .isNotNull();
+    }
+
+    private TwoTierCache createNode(SharedCacheStore sharedStore) {
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(sharedStore, name -> Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build(), MediaEntryFilter::tagsOf);
+        return cacheManager.getCache(CacheNames.ALL_MEDIA);
+    }
+}
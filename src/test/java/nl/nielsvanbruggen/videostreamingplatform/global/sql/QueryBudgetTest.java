@@ -0,0 +1,111 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.sql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every page is full of media with genres, actors, videos, ratings, reviews and views, so a query per
+// media or per association shows up in the count. The seed is rolled back after each test.
+@SpringBootTest(properties = "env.query-profiler.enabled=true")
+@AutoConfigureMockMvc
+@WithMockUser
+@Transactional
+public class QueryBudgetTest {
+    private static final int PAGE_SIZE = 20;
+    private static final long SEED_ID = 900_000;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @BeforeEach
+    public void seedCatalog() {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO _user (id, username, role, created_at) VALUES (?, 'query-budget', 'USER', ?)", SEED_ID, now);
+        jdbcTemplate.update("INSERT INTO genre (name) VALUES ('Query budget drama'), ('Query budget comedy')");
+        jdbcTemplate.update("INSERT INTO actor (id, firstname, lastname) VALUES (?, 'Query', 'Budget'), (?, 'Budget', 'Query')", SEED_ID, SEED_ID + 1);
+
+        List<Object[]> media = new ArrayList<>();
+        List<Object[]> genres = new ArrayList<>();
+        List<Object[]> actors = new ArrayList<>();
+        List<Object[]> videos = new ArrayList<>();
+        List<Object[]> ratings = new ArrayList<>();
+        List<Object[]> reviews = new ArrayList<>();
+        List<Object[]> watched = new ArrayList<>();
+        for(long id = SEED_ID; id < SEED_ID + PAGE_SIZE; id++) {
+            media.add(new Object[] {id, "Test media " + id, now, now});
+            genres.add(new Object[] {id, "Query budget drama"});
+            genres.add(new Object[] {id, "Query budget comedy"});
+            actors.add(new Object[] {id, SEED_ID});
+            actors.add(new Object[] {id, SEED_ID + 1});
+            for(int index = 0; index < 3; index++) {
+                videos.add(new Object[] {id * 10 + index, "Episode " + index, "/Test media " + id + "/" + index + ".mp4", index, id});
+            }
+            ratings.add(new Object[] {id, SEED_ID});
+            reviews.add(new Object[] {id, now, now, id});
+            watched.add(new Object[] {id * 10, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO media (id, name, year, type, created_at, updated_at) VALUES (?, ?, 2020, 'SERIES', ?, ?)", media);
+        jdbcTemplate.batchUpdate("INSERT INTO media_genre (media_id, genre_name) VALUES (?, ?)", genres);
+        jdbcTemplate.batchUpdate("INSERT INTO media_actor (media_id, actor_id) VALUES (?, ?)", actors);
+        jdbcTemplate.batchUpdate("INSERT INTO video (id, name, path, _index, duration, season, media_id) VALUES (?, ?, ?, ?, 2700, 1, ?)", videos);
+        jdbcTemplate.batchUpdate("INSERT INTO rating (media_id, user_id, score) VALUES (?, ?, 4)", ratings);
+        jdbcTemplate.batchUpdate("INSERT INTO review (id, title, comment, user_id, created_at, updated_at, media_id) " +
+                "VALUES (?, 'Review', 'Comment', " + SEED_ID + ", ?, ?, ?)", reviews);
+        jdbcTemplate.batchUpdate("INSERT INTO watched (user_id, video_id, timestamp, created_at, updated_at) " +
+                "VALUES (" + SEED_ID + ", ?, 600, ?, ?)", watched);
+    }
+
+    @Test
+    public void testAllMediaQueryBudget() throws Exception {
+        assertThat(queries("/api/v1/media/?pagenumber=0&pagesize=" + PAGE_SIZE))
+                .isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    public void testSearchMediaQueryBudget() throws Exception {
+        assertThat(queries("/api/v1/media/?pagenumber=0&pagesize=" + PAGE_SIZE + "&search=test"))
+                .isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    public void testRecentUploadedQueryBudget() throws Exception {
+        assertThat(queries("/api/v1/media/recent-uploaded?pagenumber=0&pagesize=" + PAGE_SIZE))
+                .isLessThanOrEqualTo(5);
+    }
+
+    private int queries(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(PAGE_SIZE)))
+                .andReturn();
+        QueryReport report = (QueryReport) result.getRequest().getAttribute(QueryCountFilter.REPORT_ATTRIBUTE);
+        return report.getCount();
+    }
+}
@@ -0,0 +1,128 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.sql;
+
+import nl.nielsvanbruggen.videostreamingplatform.auth.repository.RefreshTokenRepository;
+import nl.nielsvanbruggen.videostreamingplatform.media.repository.MediaRepository;
+import nl.nielsvanbruggen.videostreamingplatform.user.repository.UserRepository;
+import nl.nielsvanbruggen.videostreamingplatform.video.repository.VideoRepository;
+import nl.nielsvanbruggen.videostreamingplatform.watched.repository.WatchedRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Explains the statements Hibernate generates for the main queries and checks they can use the
+// indexes of the migrations. Sequential scans are disabled, as on a small test database they are
+// cheaper than any index, and the plan is generic so it does not depend on the parameter values.
+@SpringBootTest(properties = "env.query-profiler.enabled=true")
+@Transactional
+public class QueryPlanTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MediaRepository mediaRepository;
+    @Autowired
+    private WatchedRepository watchedRepository;
+    @Autowired
+    private VideoRepository videoRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testAllMediaUsesUpdatedAtIndex() {
+        QueryCounter.start();
+        mediaRepository.findAllByType("", PageRequest.of(0, 20));
+        assertThat(explainFirst(QueryCounter.stop()))
+                .contains("idx_media_updated_at");
+    }
+
+    @Test
+    public void testRecentUploadedUsesUpdatedAtIndex() {
+        QueryCounter.start();
+        mediaRepository.findAllRecentUploadedByType("", Instant.now().minus(7, ChronoUnit.DAYS), PageRequest.of(0, 20));
+        assertThat(explainFirst(QueryCounter.stop()))
+                .contains("idx_media_updated_at");
+    }
+
+    @Test
+    public void testLastWatchedUsesUserUpdatedAtIndex() {
+        QueryCounter.start();
+        watchedRepository.findLastWatchedByUser(userRepository.getReferenceById(1L), PageRequest.of(0, 10));
+        assertThat(explainFirst(QueryCounter.stop()))
+                .contains("idx_watched_user_id_updated_at");
+    }
+
+    @Test
+    public void testUniqueViewsUsesMediaIndexOfVideo() {
+        QueryCounter.start();
+        watchedRepository.totalUniqueViewsByMediaIdIn(List.of(1L, 2L));
+        assertThat(explainFirst(QueryCounter.stop()))
+                .contains("idx_video_media_id_index");
+    }
+
+    @Test
+    public void testVideoByPathUsesPathIndex() {
+        QueryCounter.start();
+        videoRepository.findByPath("/videos/test.mp4");
+        assertThat(explainFirst(QueryCounter.stop()))
+                .contains("idx_video_path");
+    }
+
+    @Test
+    public void testRefreshTokenByTokenUsesTokenIndex() {
+        QueryCounter.start();
+        refreshTokenRepository.findByToken("token");
+        assertThat(explainFirst(QueryCounter.stop()))
+                .contains("idx_refresh_token_token");
+    }
+
+    private String explainFirst(QueryReport report) {
+        assertThat(report.getStatements()).isNotEmpty();
+        return explain(report.getStatements().get(0));
+    }
+
+    // Prepares the statement with untyped parameters, so Postgres infers them like it does for the driver.
+    private String explain(String sql) {
+        StringBuilder prepared = new StringBuilder();
+        StringJoiner parameters = new StringJoiner(", ", "(", ")").setEmptyValue("");
+        int parameter = 0;
+        for(char c : sql.toCharArray()) {
+            if(c == '?') {
+                prepared.append('$').append(++parameter);
+                parameters.add("NULL");
+            } else {
+                prepared.append(c);
+            }
+        }
+
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try(Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL enable_seqscan = off");
+                statement.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE query_plan_test AS " + prepared);
+                try(ResultSet resultSet = statement.executeQuery("EXPLAIN EXECUTE query_plan_test" + parameters)) {
+                    StringBuilder plan = new StringBuilder();
+                    while(resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                    return plan.toString();
+                } finally {
+                    statement.execute("DEALLOCATE query_plan_test");
+                }
+            }
+        });
+    }
+}
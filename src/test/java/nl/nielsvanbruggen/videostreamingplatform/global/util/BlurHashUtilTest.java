@@ -0,0 +1,37 @@
+package nl.nielsvanbruggen.videostreamingplatform.global.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlurHashUtilTest {
+    @Test
+    public void testSolidColorAverage() {
+        BufferedImage image = solid(new Color(255, 0, 0));
+
+        // Size flag, maximum AC value and the average color 0xFF0000 in base 83.
+        assertThat(BlurHashUtil.encode(image, 1, 1))
+                .isEqualTo("00TI:j");
+    }
+
+    @Test
+    public void testLengthFollowsComponents() {
+        BufferedImage image = solid(Color.BLUE);
+
+        assertThat(BlurHashUtil.encode(image, 3, 4))
+                .hasSize(6 + 2 * (3 * 4 - 1))
+                .startsWith("T");
+    }
+
+    private BufferedImage solid(Color color) {
+        BufferedImage image = new BufferedImage(20, 30, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, 20, 30);
+        graphics.dispose();
+        return image;
+    }
+}
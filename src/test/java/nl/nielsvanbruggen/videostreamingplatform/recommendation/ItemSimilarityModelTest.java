@@ -0,0 +1,53 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ItemSimilarityModelTest {
+    private static final int MEDIA_COUNT = 40;
+    private CatalogFeatures catalog;
+    private List<int[]> histories;
+
+    // Two groups of users, each only watching media from its own cluster of ten.
+    @BeforeEach
+    public void setUp() {
+        catalog = CatalogFeatures.build(LongStream.range(0, MEDIA_COUNT).boxed().toList(), List.of(), List.of());
+        histories = new ArrayList<>();
+        Random random = new Random(3);
+        for(int user = 0; user < 200; user++) {
+            int cluster = (user % 2) * 10;
+            List<Integer> media = new ArrayList<>();
+            for(int i = 0; i < 10; i++) media.add(cluster + i);
+            Collections.shuffle(media, random);
+            histories.add(media.subList(0, 6).stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray());
+        }
+    }
+
+    @Test
+    public void testNeighboursAreCoWatchedMedia() {
+        ItemSimilarityModel model = ItemSimilarityModel.build(MEDIA_COUNT, histories, 50, ForkJoinPool.commonPool());
+
+        assertThat(Arrays.stream(model.getNeighbours(0)).boxed().toList())
+                .isNotEmpty()
+                .allMatch(mediaIndex -> mediaIndex > 0 && mediaIndex < 10);
+        assertThat(model.getNeighbours(20))
+                .isEmpty();
+    }
+
+    @Test
+    public void testCollaborativeScoreImprovesPrecision() {
+        double contentOnly = RecommendationEvaluator.precisionAtK(catalog, histories, 2, 4, 0);
+        double blended = RecommendationEvaluator.precisionAtK(catalog, histories, 2, 4, 1);
+
+        assertThat(blended)
+                .isGreaterThan(contentOnly);
+    }
+}
@@ -0,0 +1,53 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RecommendationSnapshotTest {
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path path = directory.resolve("recommendations.snapshot");
+        Map<Long, UserRecommendations> recommendations = Map.of(
+                1L, new UserRecommendations(new long[] {4, 8, 15}, new long[] {16, 23}),
+                2L, UserRecommendations.EMPTY);
+
+        RecommendationSnapshot.write(path, recommendations, 42);
+        Map<Long, UserRecommendations> result = RecommendationSnapshot.read(path);
+
+        assertThat(RecommendationSnapshot.readCreatedAt(path)).isEqualTo(42);
+        assertThat(result).containsOnlyKeys(1L, 2L);
+        assertThat(result.get(1L).mediaIds()).containsExactly(4, 8, 15);
+        assertThat(result.get(1L).inputMediaIds()).containsExactly(16, 23);
+        assertThat(result.get(2L).mediaIds()).isEmpty();
+    }
+
+    @Test
+    public void testReadCorruptSnapshot() throws IOException {
+        Path path = directory.resolve("recommendations.snapshot");
+        RecommendationSnapshot.write(path, Map.of(1L, new UserRecommendations(new long[] {4}, new long[] {8})), 42);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 8] ^= 1;
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> RecommendationSnapshot.read(path)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testReadCreatedAtOfOtherFile() throws IOException {
+        Path path = directory.resolve("recommendations.snapshot");
+        Files.write(path, new byte[64]);
+
+        assertThatThrownBy(() -> RecommendationSnapshot.readCreatedAt(path)).isInstanceOf(IOException.class);
+    }
+}
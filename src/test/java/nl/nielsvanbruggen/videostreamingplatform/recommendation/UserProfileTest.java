@@ -0,0 +1,62 @@
+package nl.nielsvanbruggen.videostreamingplatform.recommendation;
+
+import nl.nielsvanbruggen.videostreamingplatform.genre.MediaGenreView;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserProfileTest {
+    // Media 0-9 are action, media 10-99 are drama, only a few dramas share a genre with each other.
+    @Test
+    public void testRecommendSharedFeaturesFirst() {
+        List<MediaGenreView> genreViews = new ArrayList<>();
+        for(long mediaId = 0; mediaId < 100; mediaId++) {
+            genreViews.add(genreView(mediaId, mediaId < 10 ? "action" : "drama-" + mediaId));
+        }
+        CatalogFeatures catalog = CatalogFeatures.build(LongStream.range(0, 100).boxed().toList(), genreViews, List.of());
+        UserProfile profile = new UserProfile(catalog, 10);
+        profile.watch(0, catalog);
+        profile.watch(1, catalog);
+
+        int[] recommendations = profile.recommend(catalog, ItemSimilarityModel.EMPTY, 0, 12);
+
+        assertThat(recommendations).containsExactly(2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13);
+    }
+
+    @Test
+    public void testRecommendAfterOtherProfileIsUnaffected() {
+        List<MediaGenreView> genreViews = new ArrayList<>();
+        for(long mediaId = 0; mediaId < 100; mediaId++) {
+            genreViews.add(genreView(mediaId, "genre-" + mediaId % 10));
+        }
+        CatalogFeatures catalog = CatalogFeatures.build(LongStream.range(0, 100).boxed().toList(), genreViews, List.of());
+        UserProfile first = new UserProfile(catalog, 10);
+        first.watch(1, catalog);
+        UserProfile second = new UserProfile(catalog, 10);
+        second.watch(2, catalog);
+        int[] expected = second.recommend(catalog, ItemSimilarityModel.EMPTY, 0, 12);
+
+        first.recommend(catalog, ItemSimilarityModel.EMPTY, 0, 12);
+
+        assertThat(second.recommend(catalog, ItemSimilarityModel.EMPTY, 0, 12)).containsExactly(expected);
+        assertThat(expected).startsWith(12, 22, 32);
+    }
+
+    private static MediaGenreView genreView(long mediaId, String genre) {
+        return new MediaGenreView() {
+            @Override
+            public Long getMediaId() {
+                return mediaId;
+            }
+
+            @Override
+            public String getGenre() {
+                return genre;
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.controller;
+
+import nl.nielsvanbruggen.videostreamingplatform.user.model.User;
+import nl.nielsvanbruggen.videostreamingplatform.user.service.UserService;
+import nl.nielsvanbruggen.videostreamingplatform.video.model.Video;
+import nl.nielsvanbruggen.videostreamingplatform.video.service.VideoService;
+import nl.nielsvanbruggen.videostreamingplatform.watched.service.WatchedService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class WatchedControllerTest {
+    private final WatchedService watchedService = mock(WatchedService.class);
+    private final UserService userService = mock(UserService.class);
+    private final VideoService videoService = mock(VideoService.class);
+    private final WatchedController watchedController = new WatchedController(watchedService, userService, videoService);
+    private final User user = User.builder().id(1).build();
+    private final Video video = Video.builder().id(10).build();
+
+    @BeforeEach
+    public void setUp() {
+        when(userService.getUser(any(Authentication.class))).thenReturn(user);
+        when(videoService.getVideo(anyLong())).thenReturn(video);
+    }
+
+    @Test
+    public void testEndedFlushesRightAway() {
+        watchedController.postWatched(request(true), mock(Authentication.class));
+
+        verify(watchedService).postWatched(user, video, 120f);
+        verify(watchedService).endSession(user);
+    }
+
+    @Test
+    public void testProgressStaysBuffered() {
+        watchedController.postWatched(request(false), mock(Authentication.class));
+
+        verify(watchedService).postWatched(user, video, 120f);
+        verify(watchedService, never()).endSession(any());
+    }
+
+    private static WatchedPostRequest request(boolean ended) {
+        WatchedPostRequest request = new WatchedPostRequest();
+        request.setId(10L);
+        request.setTimestamp(120f);
+        request.setEnded(ended);
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.service;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContinueWatchingIndexTest {
+    @Test
+    public void testInProgressMostRecentFirst() {
+        ContinueWatchingIndex.UserEntries entries = new ContinueWatchingIndex.UserEntries();
+        entries.update(1, Type.MOVIE, true, 10);
+        entries.update(2, Type.SERIES, true, 20);
+        entries.update(3, Type.MOVIE, false, 30);
+        entries.update(1, Type.MOVIE, true, 40);
+        entries.update(2, Type.SERIES, true, 5);
+
+        assertThat(entries.getInProgress("", 0, 10))
+                .hasValueSatisfying(result -> {
+                    assertThat(result.mediaIds()).containsExactly(1, 2);
+                    assertThat(result.total()).isEqualTo(2);
+                });
+        assertThat(entries.getInProgress("MOVIE", 0, 10))
+                .hasValueSatisfying(result -> assertThat(result.mediaIds()).containsExactly(1));
+    }
+
+    @Test
+    public void testTruncatedFallsBackPastWindow() {
+        ContinueWatchingIndex.UserEntries entries = new ContinueWatchingIndex.UserEntries();
+        for(int i = 0; i <= ContinueWatchingIndex.MAX_ENTRIES; i++) {
+            entries.update(i, Type.MOVIE, true, i);
+        }
+
+        assertThat(entries.getInProgress("", 0, 10))
+                .hasValueSatisfying(result -> assertThat(result.mediaIds()).startsWith(ContinueWatchingIndex.MAX_ENTRIES));
+        assertThat(entries.getInProgress("", ContinueWatchingIndex.MAX_ENTRIES - 5, 10)).isEmpty();
+    }
+
+    @Test
+    public void testTotalCountsMediaPastWindow() {
+        ContinueWatchingIndex.UserEntries entries = new ContinueWatchingIndex.UserEntries();
+        for(int i = 0; i < ContinueWatchingIndex.MAX_ENTRIES + 10; i++) {
+            entries.update(i, Type.MOVIE, true, i);
+        }
+        entries.update(0, Type.MOVIE, false, ContinueWatchingIndex.MAX_ENTRIES + 10);
+        entries.update(1, Type.MOVIE, true, 0);
+
+        assertThat(entries.getInProgress("", 0, 10))
+                .hasValueSatisfying(result -> assertThat(result.total()).isEqualTo(ContinueWatchingIndex.MAX_ENTRIES + 9));
+    }
+
+    @Test
+    public void testOverflowFallsBackEntirely() {
+        ContinueWatchingIndex.UserEntries entries = new ContinueWatchingIndex.UserEntries();
+        for(int i = 0; i <= ContinueWatchingIndex.MAX_ENTRIES + ContinueWatchingIndex.MAX_EVICTED; i++) {
+            entries.update(i, Type.MOVIE, true, i);
+        }
+
+        assertThat(entries.getInProgress("", 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testRetainDropsDeletedMedia() {
+        ContinueWatchingIndex.UserEntries entries = new ContinueWatchingIndex.UserEntries();
+        entries.update(1, Type.MOVIE, true, 10);
+        entries.update(2, Type.MOVIE, true, 20);
+
+        entries.retain(Set.of(1L));
+
+        assertThat(entries.getInProgress("", 0, 10))
+                .hasValueSatisfying(result -> assertThat(result.mediaIds()).containsExactly(1));
+    }
+}
@@ -0,0 +1,82 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.service;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchProgress;
+import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchedDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class WatchProgressBufferTest {
+    private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+
+    @Test
+    public void testRecordCollapsesUpdatesPerVideo() {
+        WatchProgressBuffer buffer = new WatchProgressBuffer(new RecordingJdbcTemplate(), new ConcurrentMapCacheManager(), event -> {});
+        buffer.record(progress(1, 10, 100, NOW));
+        buffer.record(progress(1, 10, 200, NOW.plusSeconds(10)));
+        buffer.record(progress(1, 10, 50, NOW.minusSeconds(10)));
+        buffer.record(progress(1, 11, 300, NOW));
+
+        assertThat(buffer.getPending(1))
+                .extracting(progress -> progress.watched().videoId(), progress -> progress.watched().timestamp())
+                .containsExactlyInAnyOrder(
+                        tuple(10L, 200.0),
+                        tuple(11L, 300.0));
+    }
+
+    @Test
+    public void testFlushOfUserOnlyWritesThatUser() {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+        WatchProgressBuffer buffer = new WatchProgressBuffer(jdbcTemplate, new ConcurrentMapCacheManager(), event -> {});
+        buffer.record(progress(1, 10, 100, NOW));
+        buffer.record(progress(2, 10, 100, NOW));
+
+        buffer.flush(1);
+
+        assertThat(jdbcTemplate.statements).hasSize(1);
+        assertThat(buffer.getPending(1)).isEmpty();
+        assertThat(buffer.getPending(2)).hasSize(1);
+    }
+
+    @Test
+    public void testFlushKeepsProgressRecordedDuringWrite() {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+        WatchProgressBuffer buffer = new WatchProgressBuffer(jdbcTemplate, new ConcurrentMapCacheManager(), event -> {});
+        buffer.record(progress(1, 10, 100, NOW));
+        jdbcTemplate.duringWrite = () -> buffer.record(progress(1, 10, 200, NOW.plusSeconds(10)));
+
+        buffer.flush();
+
+        assertThat(buffer.getPending(1))
+                .singleElement()
+                .satisfies(progress -> assertThat(progress.watched().timestamp()).isEqualTo(200));
+    }
+
+    private static WatchProgress progress(long userId, long videoId, double timestamp, Instant updatedAt) {
+        return new WatchProgress(userId,
+                new WatchedDTO(videoId, "Episode", 1, 1, timestamp, 1, updatedAt, 2700),
+                Type.SERIES);
+    }
+
+    // Records the upserts instead of sending them, no rows are returned.
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<String> statements = new ArrayList<>();
+        private Runnable duringWrite = () -> {};
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            statements.add(sql);
+            duringWrite.run();
+            return List.of();
+        }
+    }
+}
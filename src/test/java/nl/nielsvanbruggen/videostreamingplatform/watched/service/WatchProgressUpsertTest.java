@@ -0,0 +1,63 @@
+package nl.nielsvanbruggen.videostreamingplatform.watched.service;
+
+import nl.nielsvanbruggen.videostreamingplatform.media.model.Type;
+import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchProgress;
+import nl.nielsvanbruggen.videostreamingplatform.watched.dto.WatchedDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A flush that arrives after a newer one, from another node or a retried batch, keeps the newer position.
+@SpringBootTest
+@Transactional
+public class WatchProgressUpsertTest {
+    private static final long USER_ID = 900_000;
+    private static final long VIDEO_ID = 900_000;
+    private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+    @Autowired
+    private WatchProgressBuffer watchProgressBuffer;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void seed() {
+        jdbcTemplate.update("INSERT INTO _user (id, username, role, created_at) VALUES (?, 'watch-progress', 'USER', ?)", USER_ID, Timestamp.from(NOW));
+        jdbcTemplate.update("INSERT INTO media (id, name, year, type) VALUES (?, 'Watch progress', 2020, 'SERIES')", VIDEO_ID);
+        jdbcTemplate.update("INSERT INTO video (id, name, _index, duration, season, media_id) VALUES (?, 'Episode', 1, 2700, 1, ?)", VIDEO_ID, VIDEO_ID);
+    }
+
+    @Test
+    public void testOlderProgressDoesNotOverwriteNewer() {
+        write(200, NOW.plusSeconds(10));
+        write(100, NOW);
+
+        assertThat(getTimestamp()).isEqualTo(200);
+    }
+
+    @Test
+    public void testNewerProgressOverwritesOlder() {
+        write(100, NOW);
+        write(200, NOW.plusSeconds(10));
+
+        assertThat(getTimestamp()).isEqualTo(200);
+    }
+
+    private void write(double timestamp, Instant updatedAt) {
+        watchProgressBuffer.record(new WatchProgress(USER_ID,
+                new WatchedDTO(VIDEO_ID, "Episode", 1, 1, timestamp, VIDEO_ID, updatedAt, 2700),
+                Type.SERIES));
+        watchProgressBuffer.flush(USER_ID);
+    }
+
+    private double getTimestamp() {
+        return jdbcTemplate.queryForObject("SELECT timestamp FROM watched WHERE user_id = ? AND video_id = ?", Double.class, USER_ID, VIDEO_ID);
+    }
+}